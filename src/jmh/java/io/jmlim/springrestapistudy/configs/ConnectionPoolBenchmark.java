@@ -0,0 +1,98 @@
+package io.jmlim.springrestapistudy.configs;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.jmlim.springrestapistudy.common.AppProperties;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * my-app.pool 설정에 따른 insert, 조회 처리량 비교. (ConnectionPoolConfig)
+ * driverDefaults : HikariCP, 드라이버 기본값, tuned : my-app.pool 기본값, rewriteBatch : tuned + rewrite-batched-statements
+ *
+ * 드라이버 설정은 MariaDB 에만 적용되므로 application.yml 의 로컬 MariaDB 에서 실행한다. 접속 정보는 시스템 프로퍼티로 바꾼다.
+ * -Djmh.args="ConnectionPoolBenchmark -jvmArgsAppend -Dbenchmark.jdbc-url=jdbc:mariadb://host:3306/db"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Threads(4)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ConnectionPoolBenchmark {
+
+    private static final int ROWS = 10000;
+
+    private static final int BATCH_SIZE = 50;
+
+    private static final String INSERT =
+            "insert into pool_benchmark_event (id, name, location, base_price, max_price) values (?, ?, ?, ?, ?)";
+
+    @Param({"driverDefaults", "tuned", "rewriteBatch"})
+    public String settings;
+
+    private HikariDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private final AtomicInteger nextId = new AtomicInteger(ROWS);
+
+    @Setup
+    public void setUp() {
+        this.dataSource = new HikariDataSource();
+        this.dataSource.setJdbcUrl(System.getProperty("benchmark.jdbc-url", "jdbc:mariadb://localhost:3306/jmlim_test_rest"));
+        this.dataSource.setUsername(System.getProperty("benchmark.username", "jmlim"));
+        this.dataSource.setPassword(System.getProperty("benchmark.password", "jmlim1234"));
+        if (!"driverDefaults".equals(this.settings)) {
+            AppProperties.Pool pool = new AppProperties.Pool();
+            pool.setRewriteBatchedStatements("rewriteBatch".equals(this.settings));
+            ConnectionPoolConfig.apply(pool, this.dataSource);
+        }
+        this.jdbcTemplate = new JdbcTemplate(this.dataSource);
+
+        this.jdbcTemplate.execute("drop table if exists pool_benchmark_event");
+        this.jdbcTemplate.execute("create table pool_benchmark_event (id int primary key, name varchar(255), "
+                + "location varchar(255), base_price int, max_price int)");
+        for (int i = 0; i < ROWS; i += BATCH_SIZE) {
+            this.jdbcTemplate.batchUpdate(INSERT, rows(i));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.jdbcTemplate.execute("drop table if exists pool_benchmark_event");
+        this.dataSource.close();
+    }
+
+    @Benchmark
+    public int[] insertBatch() {
+        return this.jdbcTemplate.batchUpdate(INSERT, rows(this.nextId.getAndAdd(BATCH_SIZE)));
+    }
+
+    @Benchmark
+    public Map<String, Object> queryById() {
+        return this.jdbcTemplate.queryForMap("select id, name, location, base_price, max_price "
+                + "from pool_benchmark_event where id = ?", ThreadLocalRandom.current().nextInt(ROWS));
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> queryPage() {
+        return this.jdbcTemplate.queryForList("select id, name, location, base_price, max_price "
+                + "from pool_benchmark_event where base_price >= ? order by id limit 20", ThreadLocalRandom.current().nextInt(100));
+    }
+
+    private static List<Object[]> rows(int firstId) {
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (int id = firstId; id < firstId + BATCH_SIZE; id++) {
+            rows.add(new Object[]{id, "event " + id, "강남역 D2 스타트업 팩토리", id % 100, 200});
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,101 @@
+package io.jmlim.springrestapistudy.configs;
+
+import io.jmlim.springrestapistudy.accounts.Account;
+import io.jmlim.springrestapistudy.accounts.AccountAdapter;
+import io.jmlim.springrestapistudy.accounts.AccountRole;
+import io.jmlim.springrestapistudy.accounts.AccountUserAuthenticationConverter;
+import io.jmlim.springrestapistudy.common.AppProperties;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.token.DefaultAccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.DefaultTokenServices;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
+
+import java.security.KeyPairGenerator;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 리소스 서버가 액세스 토큰으로 인증정보를 만드는 비용 비교. (ResourceServerTokenServices.loadAuthentication)
+ * jdbc : 캐시 없이 매번 DB 조회, jdbcNearCache : PersistentTokenStore 기본 설정, jwt : 서명 검증 + 클레임 변환
+ * DB 는 임베디드 H2 라서 실제 네트워크 왕복 비용은 빠져 있다.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TokenAuthenticationBenchmark {
+
+    @Param({"jdbc", "jdbcNearCache", "jwt"})
+    public String mode;
+
+    private EmbeddedDatabase dataSource;
+
+    private DefaultTokenServices tokenServices;
+
+    private String tokenValue;
+
+    @Setup
+    public void setUp() throws Exception {
+        this.tokenServices = new DefaultTokenServices();
+        if ("jwt".equals(this.mode)) {
+            DefaultAccessTokenConverter accessTokenConverter = new DefaultAccessTokenConverter();
+            accessTokenConverter.setUserTokenConverter(new AccountUserAuthenticationConverter());
+            JwtAccessTokenConverter converter = new JwtAccessTokenConverter();
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            converter.setKeyPair(generator.generateKeyPair());
+            converter.setAccessTokenConverter(accessTokenConverter);
+            converter.afterPropertiesSet();
+            this.tokenServices.setTokenStore(new JwtTokenStore(converter));
+            this.tokenServices.setTokenEnhancer(converter);
+        } else {
+            this.dataSource = new EmbeddedDatabaseBuilder()
+                    .setType(EmbeddedDatabaseType.H2)
+                    .addScript("classpath:schema.sql")
+                    .build();
+            AppProperties.TokenStore properties = new AppProperties.TokenStore();
+            if ("jdbc".equals(this.mode)) {
+                properties.setNearCache("maximumSize=0");
+            }
+            this.tokenServices.setTokenStore(new PersistentTokenStore(this.dataSource, properties));
+        }
+        this.tokenValue = this.tokenServices.createAccessToken(authentication()).getValue();
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (this.dataSource != null) {
+            this.dataSource.shutdown();
+        }
+    }
+
+    @Benchmark
+    public OAuth2Authentication loadAuthentication() {
+        return this.tokenServices.loadAuthentication(this.tokenValue);
+    }
+
+    private static OAuth2Authentication authentication() {
+        Account account = Account.builder()
+                .id(1)
+                .email("user@email.com")
+                .password("{bcrypt}secret")
+                .roles(Stream.of(AccountRole.ADMIN, AccountRole.USER).collect(Collectors.toSet()))
+                .build();
+        AccountAdapter principal = new AccountAdapter(account);
+        OAuth2Request request = new OAuth2Request(Collections.emptyMap(), "myApp", null, true,
+                Collections.singleton("read"), Collections.singleton("event"), null, null, null);
+        return new OAuth2Authentication(request,
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
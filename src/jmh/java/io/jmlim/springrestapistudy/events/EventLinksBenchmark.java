@@ -0,0 +1,67 @@
+package io.jmlim.springrestapistudy.events;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.hateoas.Link;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
+
+/**
+ * 이벤트 100개 페이지의 self, update-event 링크 생성 비교.
+ * controllerLinkBuilder : 이벤트마다 ControllerLinkBuilder 로 생성 (이전 방식)
+ * eventLinks : 요청마다 기본 경로를 한번 만들고 문자열로 이어 붙임 (EventLinks)
+ * 할당량 비교 : mvn -Pbenchmark test-compile exec:exec -Djmh.args="EventLinks -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class EventLinksBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setUp() {
+        this.request = new MockHttpServletRequest("GET", "/api/events");
+        this.request.setServerName("localhost");
+        this.request.setServerPort(8080);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(this.request));
+    }
+
+    @TearDown
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public List<Link> controllerLinkBuilder() {
+        List<Link> links = new ArrayList<>(PAGE_SIZE * 2);
+        for (int id = 0; id < PAGE_SIZE; id++) {
+            links.add(linkTo(EventController.class).slash(id).withSelfRel());
+            links.add(linkTo(EventController.class).slash(id).withRel("update-event"));
+        }
+        return links;
+    }
+
+    @Benchmark
+    public List<Link> eventLinks() {
+        // 매 호출을 새 요청으로 보고 기본 경로 계산 비용도 포함한다.
+        this.request.removeAttribute(EventLinks.class.getName() + ".base");
+        List<Link> links = new ArrayList<>(PAGE_SIZE * 2);
+        for (int id = 0; id < PAGE_SIZE; id++) {
+            links.add(EventLinks.event(id, Link.REL_SELF));
+            links.add(EventLinks.event(id, "update-event"));
+        }
+        return links;
+    }
+}
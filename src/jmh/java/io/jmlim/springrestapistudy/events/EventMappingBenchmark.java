@@ -0,0 +1,69 @@
+package io.jmlim.springrestapistudy.events;
+
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EventDto -> Event 매핑 비용 비교. (ModelMapper vs MapStruct)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class EventMappingBenchmark {
+
+    private ModelMapper modelMapper;
+
+    private EventMapper eventMapper;
+
+    private EventDto eventDto;
+
+    @Setup
+    public void setUp() {
+        this.modelMapper = new ModelMapper();
+        this.eventMapper = new EventMapperImpl();
+        this.eventDto = EventDto.builder()
+                .name("Spring")
+                .description("REST API Development with Spring")
+                .beginEnrollmentDateTime(LocalDateTime.of(2018, 11, 23, 14, 21))
+                .closeEnrollmentDateTime(LocalDateTime.of(2018, 11, 24, 14, 21))
+                .beginEventDateTime(LocalDateTime.of(2018, 11, 25, 14, 21))
+                .endEventDateTime(LocalDateTime.of(2018, 11, 26, 14, 21))
+                .basePrice(100)
+                .maxPrice(200)
+                .limitOfEnrollment(100)
+                .location("강남역 D2 스타트업 팩토리.")
+                .build();
+        // 처음 한번은 타입맵을 만드는 비용이 있으므로 미리 호출.
+        this.modelMapper.map(this.eventDto, Event.class);
+    }
+
+    @Benchmark
+    public Event modelMapper() {
+        return this.modelMapper.map(this.eventDto, Event.class);
+    }
+
+    @Benchmark
+    public Event eventMapper() {
+        return this.eventMapper.toEvent(this.eventDto);
+    }
+
+    @Benchmark
+    public Event modelMapperUpdate() {
+        Event event = new Event();
+        this.modelMapper.map(this.eventDto, event);
+        return event;
+    }
+
+    @Benchmark
+    public Event eventMapperUpdate() {
+        Event event = new Event();
+        this.eventMapper.update(this.eventDto, event);
+        return event;
+    }
+}
@@ -0,0 +1,166 @@
+package io.jmlim.springrestapistudy.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import io.jmlim.springrestapistudy.accounts.Account;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.PagedResources;
+import org.springframework.hateoas.core.DefaultRelProvider;
+import org.springframework.hateoas.hal.Jackson2HalModule;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * 이벤트 요청 처리 중 DB 를 제외한 CPU 구간 벤치마크.
+ * 할당량까지 보려면 -prof gc 옵션을 준다.
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="EventRequest -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+// 링크를 만들 때 현재 요청 정보가 쓰레드에 있어야 하므로 쓰레드 단위로 준비.
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class EventRequestBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private EventValidator eventValidator;
+
+    private EventDto eventDto;
+
+    private Event event;
+
+    private List<Event> events;
+
+    private ObjectMapper halObjectMapper;
+
+    // EventResourceSerializer, Afterburner 를 등록한 ObjectMapper
+    private ObjectMapper eventObjectMapper;
+
+    private ObjectMapper afterburnerObjectMapper;
+
+    private PagedResources<EventResource> page;
+
+    @Setup
+    public void setUp() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/events");
+        request.setServerName("localhost");
+        request.setServerPort(8080);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        this.eventValidator = new EventValidator();
+        this.eventDto = EventDto.builder()
+                .name("Spring")
+                .description("REST API Development with Spring")
+                .beginEnrollmentDateTime(LocalDateTime.of(2018, 11, 23, 14, 21))
+                .closeEnrollmentDateTime(LocalDateTime.of(2018, 11, 24, 14, 21))
+                .beginEventDateTime(LocalDateTime.of(2018, 11, 25, 14, 21))
+                .endEventDateTime(LocalDateTime.of(2018, 11, 26, 14, 21))
+                .basePrice(100)
+                .maxPrice(200)
+                .limitOfEnrollment(100)
+                .location("강남역 D2 스타트업 팩토리.")
+                .build();
+        this.event = buildEvent(1);
+        this.events = IntStream.range(0, PAGE_SIZE).mapToObj(this::buildEvent).collect(Collectors.toList());
+
+        // 애플리케이션의 HAL ObjectMapper 와 같은 설정.
+        this.halObjectMapper = new ObjectMapper();
+        this.halObjectMapper.registerModule(new Jackson2HalModule());
+        this.halObjectMapper.registerModule(new JavaTimeModule());
+        this.halObjectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        this.halObjectMapper.setHandlerInstantiator(
+                new Jackson2HalModule.HalHandlerInstantiator(new DefaultRelProvider(), null, null));
+        this.eventObjectMapper = this.halObjectMapper.copy()
+                .registerModule(new SimpleModule().addSerializer(EventResource.class, new EventResourceSerializer()));
+        this.afterburnerObjectMapper = this.halObjectMapper.copy().registerModule(new AfterburnerModule());
+        this.page = eventPage();
+    }
+
+    @TearDown
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private Event buildEvent(int index) {
+        Event event = Event.builder()
+                .id(index)
+                .name("event " + index)
+                .description("test event")
+                .beginEnrollmentDateTime(LocalDateTime.of(2018, 11, 23, 14, 21))
+                .closeEnrollmentDateTime(LocalDateTime.of(2018, 11, 24, 14, 21))
+                .beginEventDateTime(LocalDateTime.of(2018, 11, 25, 14, 21))
+                .endEventDateTime(LocalDateTime.of(2018, 11, 26, 14, 21))
+                .basePrice(100)
+                .maxPrice(200)
+                .limitOfEnrollment(100)
+                .location("강남역 D2 스타트업 팩토리.")
+                .eventStatus(EventStatus.PUBLISHED)
+                .manager(Account.builder().id(1).build())
+                .build();
+        event.update();
+        return event;
+    }
+
+    private PagedResources<EventResource> eventPage() {
+        List<EventResource> resources = this.events.stream().map(EventResource::new).collect(Collectors.toList());
+        PagedResources<EventResource> page = new PagedResources<>(resources,
+                new PagedResources.PageMetadata(PAGE_SIZE, 0, 1000));
+        page.add(new Link("http://localhost:8080/api/events?page=0&size=20").withSelfRel());
+        page.add(new Link("/docs/index.html#resources-events-list").withRel("profile"));
+        return page;
+    }
+
+    @Benchmark
+    public Errors validate() {
+        Errors errors = new BeanPropertyBindingResult(this.eventDto, "eventDto");
+        this.eventValidator.validate(this.eventDto, errors);
+        return errors;
+    }
+
+    @Benchmark
+    public Event update() {
+        this.event.update();
+        return this.event;
+    }
+
+    @Benchmark
+    public EventResource eventResource() {
+        return new EventResource(this.event);
+    }
+
+    @Benchmark
+    public PagedResources<EventResource> eventResourcePage() {
+        return eventPage();
+    }
+
+    @Benchmark
+    public byte[] serializeEventPage() throws Exception {
+        return this.halObjectMapper.writeValueAsBytes(this.page);
+    }
+
+    @Benchmark
+    public byte[] serializeEventPageWithEventSerializer() throws Exception {
+        return this.eventObjectMapper.writeValueAsBytes(this.page);
+    }
+
+    @Benchmark
+    public byte[] serializeEventPageWithAfterburner() throws Exception {
+        return this.afterburnerObjectMapper.writeValueAsBytes(this.page);
+    }
+}
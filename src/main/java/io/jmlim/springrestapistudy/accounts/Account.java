@@ -3,6 +3,7 @@ package io.jmlim.springrestapistudy.accounts;
 import lombok.*;
 
 import javax.persistence.*;
+import java.io.Serializable;
 import java.util.Set;
 
 @Entity
@@ -12,7 +13,7 @@ import java.util.Set;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class Account {
+public class Account implements Serializable {
     @Id
     @GeneratedValue
     private Integer id;
@@ -24,8 +25,9 @@ public class Account {
 
     /**
      * 권한 가지고올 양이 적고 매번 가져와야 해서..
+     * -> 이벤트의 매니저로 조회될 때도 매번 같이 조회되므로 LAZY 로 두고 로그인 시에만 엔티티 그래프로 가져온다.
      * */
-    @ElementCollection(fetch = FetchType.EAGER)
+    @ElementCollection(fetch = FetchType.LAZY)
     @Enumerated(value = EnumType.STRING)
     private Set<AccountRole> roles;
 }
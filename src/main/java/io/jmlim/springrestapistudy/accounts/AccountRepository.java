@@ -1,9 +1,71 @@
 package io.jmlim.springrestapistudy.accounts;
 
+import io.jmlim.springrestapistudy.configs.CacheConfig;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface AccountRepository extends JpaRepository<Account, Integer> {
+
+    // 로그인 시 권한이 필요하므로 한번의 쿼리로 같이 가져온다.
+    @EntityGraph(attributePaths = "roles")
     Optional<Account> findByEmail(String username);
+
+    /**
+     * 로그인(토큰 발급, 갱신)용 캐시. 권한까지 읽어둔 계정을 캐시하고 UserDetails 는 매번 새로 만든다.
+     * (UserDetails 는 인증 후 eraseCredentials 로 비밀번호가 지워지므로 공유하면 안된다)
+     */
+    @Cacheable(cacheNames = CacheConfig.ACCOUNTS, unless = "#result == null")
+    @EntityGraph(attributePaths = "roles")
+    @Query("select a from Account a where a.email = ?1")
+    Optional<Account> findCachedByEmail(String email);
+
+    // 이메일이 바뀌기 전 값. 캐시에서 이전 이메일을 지울 때 사용한다. (AccountService.saveAccount)
+    @Query("select a.email from Account a where a.id = ?1")
+    Optional<String> findEmailById(Integer id);
+
+    /**
+     * 생성, 수정, 삭제 시 캐시에서 제거. 이메일이 키이므로 이메일을 바꾸는 경우는 이전 이메일도 지워야 한다.
+     * 이메일을 알 수 없는 경우(id, 여러 건)는 캐시를 모두 비운다.
+     */
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.ACCOUNTS, key = "#result.email")
+    <S extends Account> S save(S account);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.ACCOUNTS, key = "#result.email")
+    <S extends Account> S saveAndFlush(S account);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.ACCOUNTS, allEntries = true)
+    <S extends Account> List<S> saveAll(Iterable<S> accounts);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.ACCOUNTS, key = "#p0.email")
+    void delete(Account account);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.ACCOUNTS, allEntries = true)
+    void deleteById(Integer id);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.ACCOUNTS, allEntries = true)
+    void deleteAll(Iterable<? extends Account> accounts);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.ACCOUNTS, allEntries = true)
+    void deleteInBatch(Iterable<Account> accounts);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.ACCOUNTS, allEntries = true)
+    void deleteAll();
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.ACCOUNTS, allEntries = true)
+    void deleteAllInBatch();
 }
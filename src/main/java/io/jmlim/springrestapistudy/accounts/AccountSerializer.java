@@ -4,6 +4,7 @@ package io.jmlim.springrestapistudy.accounts;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
+import org.hibernate.proxy.HibernateProxy;
 
 import java.io.IOException;
 
@@ -13,7 +14,17 @@ public class AccountSerializer extends JsonSerializer<Account> {
     @Override
     public void serialize(Account account, JsonGenerator gen, SerializerProvider serializerProvider) throws IOException {
         gen.writeStartObject();
-        gen.writeNumberField("id", account.getId());
+        gen.writeNumberField("id", id(account));
         gen.writeEndObject();
     }
+
+    /**
+     * LAZY 프록시인 경우 초기화(select) 하지 않고 FK 값으로 가지고 있는 id 를 사용.
+     */
+    public static Integer id(Account account) {
+        if (account instanceof HibernateProxy) {
+            return (Integer) ((HibernateProxy) account).getHibernateLazyInitializer().getIdentifier();
+        }
+        return account.getId();
+    }
 }
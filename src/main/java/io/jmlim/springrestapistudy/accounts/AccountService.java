@@ -1,14 +1,17 @@
 package io.jmlim.springrestapistudy.accounts;
 
+import io.jmlim.springrestapistudy.configs.CacheConfig;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 @Service
-public class AccountService implements UserDetailsService {
+public class AccountService implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     AccountRepository accountRepository;
@@ -16,15 +19,36 @@ public class AccountService implements UserDetailsService {
     @Autowired
     PasswordEncoder passwordEncoder;
 
+    @Autowired
+    CacheManager cacheManager;
+
     public Account saveAccount(Account account) {
         account.setPassword(this.passwordEncoder.encode(account.getPassword()));
+        // 이메일을 바꾸면 이전 이메일로 캐시된 계정도 지운다.
+        if (account.getId() != null) {
+            accountRepository.findEmailById(account.getId())
+                    .filter(email -> !email.equals(account.getEmail()))
+                    .ifPresent(this.cacheManager.getCache(CacheConfig.ACCOUNTS)::evict);
+        }
         return accountRepository.save(account);
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        Account account = accountRepository.findByEmail(username)
+        Account account = accountRepository.findCachedByEmail(username)
                 .orElseThrow(() -> new UsernameNotFoundException(username));
         return new AccountAdapter(account);
     }
+
+    /**
+     * 로그인 성공 시 해시 방식이나 강도가 설정과 다르면 호출된다. (DaoAuthenticationProvider)
+     * newPassword 는 이미 인코딩된 값이다.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        Account account = accountRepository.findByEmail(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException(user.getUsername()));
+        account.setPassword(newPassword);
+        return new AccountAdapter(accountRepository.save(account));
+    }
 }
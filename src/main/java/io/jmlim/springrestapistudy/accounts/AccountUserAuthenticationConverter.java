@@ -0,0 +1,56 @@
+package io.jmlim.springrestapistudy.accounts;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.provider.token.DefaultUserAuthenticationConverter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * JWT 클레임 <-> 사용자 인증정보 변환.
+ * 계정 id 를 클레임에 같이 담아서 요청마다 AccountRepository 를 조회하지 않고 AccountAdapter 를 다시 만든다.
+ */
+public class AccountUserAuthenticationConverter extends DefaultUserAuthenticationConverter {
+
+    public static final String ACCOUNT_ID = "account_id";
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    @Override
+    public Map<String, ?> convertUserAuthentication(Authentication authentication) {
+        Map<String, Object> response = new LinkedHashMap<>(super.convertUserAuthentication(authentication));
+        if (authentication.getPrincipal() instanceof AccountAdapter) {
+            response.put(ACCOUNT_ID, ((AccountAdapter) authentication.getPrincipal()).getAccount().getId());
+        }
+        return response;
+    }
+
+    @Override
+    public Authentication extractAuthentication(Map<String, ?> map) {
+        Authentication authentication = super.extractAuthentication(map);
+        if (authentication == null || !map.containsKey(ACCOUNT_ID)) {
+            return authentication;
+        }
+
+        // 토큰에는 비밀번호를 담지 않는다.
+        Account account = Account.builder()
+                .id(((Number) map.get(ACCOUNT_ID)).intValue())
+                .email(authentication.getName())
+                .password("")
+                .roles(roles(authentication))
+                .build();
+        return new UsernamePasswordAuthenticationToken(new AccountAdapter(account), "N/A", authentication.getAuthorities());
+    }
+
+    private static Set<AccountRole> roles(Authentication authentication) {
+        return authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .filter(authority -> authority.startsWith(ROLE_PREFIX))
+                .map(authority -> AccountRole.valueOf(authority.substring(ROLE_PREFIX.length())))
+                .collect(Collectors.toSet());
+    }
+}
@@ -3,9 +3,13 @@ package io.jmlim.springrestapistudy.common;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
 import javax.validation.constraints.NotEmpty;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 @Component
 @ConfigurationProperties(prefix = "my-app")
@@ -24,4 +28,194 @@ public class AppProperties {
     private String clientId;
     @NotEmpty
     private String clientSecret;
+
+    private final EventCount eventCount = new EventCount();
+
+    private final Cache cache = new Cache();
+
+    private final TokenStore tokenStore = new TokenStore();
+
+    private final Token token = new Token();
+
+    private final Password password = new Password();
+
+    private final Search search = new Search();
+
+    private final AsyncQuery asyncQuery = new AsyncQuery();
+
+    private final Json json = new Json();
+
+    private final Compression compression = new Compression();
+
+    private final SlowQuery slowQuery = new SlowQuery();
+
+    private final SqlStats sqlStats = new SqlStats();
+
+    private final Pool pool = new Pool();
+
+    private final Replica replica = new Replica();
+
+    @Getter
+    @Setter
+    public static class EventCount {
+        /** count=estimate 조회에서 사용하는 전체 개수를 다시 계산하는 주기(초) */
+        private long refreshSeconds = 60;
+    }
+
+    @Getter
+    @Setter
+    public static class Cache {
+        /** 이벤트 단건 캐시의 Caffeine 스펙 (크기, TTL) */
+        private String events = "maximumSize=10000,expireAfterWrite=10m";
+        /** 로그인 계정 캐시의 Caffeine 스펙. 다른 서버에서 바꾼 계정 정보는 만료시간 후에 반영된다. */
+        private String accounts = "maximumSize=10000,expireAfterWrite=5m";
+    }
+
+    @Getter
+    @Setter
+    public static class TokenStore {
+        /** 토큰 조회 결과를 서버 내부에 캐시하는 Caffeine 스펙. 폐기된 토큰이 다른 서버에서 유효할 수 있는 최대 시간이기도 하다. */
+        private String nearCache = "maximumSize=10000,expireAfterWrite=30s";
+        /** 만료 토큰 삭제 주기(ms) */
+        private long sweepIntervalMillis = 60000;
+        /** 만료 토큰을 한번에 삭제하는 개수 */
+        private int sweepBatchSize = 500;
+    }
+
+    @Getter
+    @Setter
+    public static class Token {
+        /** store : 토큰 스토어(DB)에 저장, jwt : 서명된 JWT 발급 */
+        private String mode = "store";
+        /** jwt 서명 키스토어(jks). 없으면 기동 시 키를 생성한다. */
+        private Resource keyStore;
+        private String keyStorePassword;
+        private String keyAlias;
+    }
+
+    @Getter
+    @Setter
+    public static class Password {
+        /** bcrypt 강도(4~31). 바꾸면 기존 계정은 다음 로그인 때 새 강도로 다시 해싱된다. */
+        private int bcryptStrength = 10;
+        /** 해싱에 사용할 스레드 수 */
+        private int hashingThreads = Runtime.getRuntime().availableProcessors();
+        /** 해싱 대기열 크기. 넘치면 바로 실패한다. */
+        private int hashingQueueCapacity = 200;
+    }
+
+    @Getter
+    @Setter
+    public static class Search {
+        /** 이벤트 검색 인덱스 경로. 비어 있으면 메모리에 만든다. */
+        private String indexPath;
+        /** 인덱스를 디스크에 반영하는 주기(ms) */
+        private long commitIntervalMillis = 10000;
+    }
+
+    @Getter
+    @Setter
+    public static class AsyncQuery {
+        /** 비동기 조회(X-Async: true)에서 DB 작업을 실행하는 스레드 수. 커넥션 풀 크기보다 크게 잡지 않는다. */
+        private int threads = 10;
+        /** 대기열 크기. 넘치면 바로 503 으로 응답한다. */
+        private int queueCapacity = 100;
+        /** 응답 제한 시간(ms). 지나면 503 으로 응답한다. */
+        private long timeoutMillis = 5000;
+    }
+
+    @Getter
+    @Setter
+    public static class Json {
+        /** Jackson Afterburner 모듈 사용 여부. 리플렉션 대신 생성한 바이트코드로 빈 프로퍼티를 읽고 쓴다. */
+        private boolean afterburner = false;
+    }
+
+    @Getter
+    @Setter
+    public static class Compression {
+        /** 응답 본문 압축(gzip, deflate) 사용 여부 */
+        private boolean enabled = true;
+        /** 이 크기(byte)보다 작은 응답은 압축하지 않는다. */
+        private int minSize = 2048;
+        /** 압축 수준 (1: 빠름 ~ 9: 작음) */
+        private int level = 6;
+        /** 압축할 Content-Type */
+        private List<String> mimeTypes = new ArrayList<>(Arrays.asList(
+                "application/hal+json", "application/json", "application/x-ndjson"));
+        /** 재사용할 Deflater 최대 개수. 동시에 압축하는 응답 수 정도로 잡는다. */
+        private int poolSize = 64;
+    }
+
+    @Getter
+    @Setter
+    public static class SlowQuery {
+        /** 이 시간(ms) 이상 걸린 SQL 만 실행 시간과 함께 로그로 남긴다. 0 이면 사용하지 않는다. */
+        private long thresholdMillis = 0;
+        /** 로그에 남길 바인딩 파라미터 포함 여부 */
+        private boolean logParameters = false;
+    }
+
+    @Getter
+    @Setter
+    public static class SqlStats {
+        /** 요청별 SQL 개수, JDBC 시간 집계 사용 여부 */
+        private boolean enabled = true;
+        /** 응답에 X-SQL-Count, X-SQL-Time 헤더 추가 여부. 운영에서는 끈다. */
+        private boolean headers = true;
+        /** @SqlBudget 이 없는 요청의 최대 SQL 개수. 넘으면 경고 로그. */
+        private int maxStatements = 20;
+        /** @SqlBudget 에 시간이 없는 요청의 최대 JDBC 시간(ms). 넘으면 경고 로그. */
+        private long maxTimeMillis = 1000;
+        /** @SqlBudget 의 SQL 개수를 넘으면 예외를 던진다. (테스트용) */
+        private boolean failOnBudgetExceeded = false;
+    }
+
+    @Getter
+    @Setter
+    public static class Pool {
+        /** 최대 커넥션 수. async-query.threads 이상으로 잡는다. */
+        private int maximumPoolSize = 10;
+        /** 유지할 최소 유휴 커넥션 수. 지정하지 않으면 maximum-pool-size 와 같은 고정 크기 풀 */
+        private Integer minimumIdle;
+        /** 커넥션을 얻기까지 기다리는 최대 시간(ms). 250 이상 */
+        private long connectionTimeoutMillis = 3000;
+        /** 유휴 커넥션을 닫기까지의 시간(ms). 고정 크기 풀이면 사용하지 않는다. */
+        private long idleTimeoutMillis = 600000;
+        /** 커넥션 최대 수명(ms). DB 의 wait_timeout 보다 짧게, 30000 이상 */
+        private long maxLifetimeMillis = 1800000;
+        /** 이 시간(ms) 이상 반납하지 않은 커넥션을 로그로 남긴다. 0 이면 사용하지 않는다. */
+        private long leakDetectionThresholdMillis = 0;
+
+        // 아래는 MariaDB(MySQL) 드라이버 설정. 다른 DB 에는 적용하지 않는다.
+
+        /** 서버 측 prepared statement 사용. SQL 파싱, 실행 계획을 서버에서 재사용한다. */
+        private boolean useServerPrepStmts = true;
+        /** 커넥션마다 서버 측 prepared statement 를 캐시 */
+        private boolean cachePrepStmts = true;
+        /** 커넥션마다 캐시할 prepared statement 개수 */
+        private int prepStmtCacheSize = 250;
+        /** 캐시할 SQL 최대 길이 */
+        private int prepStmtCacheSqlLimit = 2048;
+        /** 배치 insert 를 다중 VALUES 한 문장으로 바꾼다. 켜면 서버 측 prepared statement 를 쓰지 않는다. */
+        private boolean rewriteBatchedStatements = false;
+        /** 소켓 읽기 타임아웃(ms). 0 이면 무한 대기 */
+        private int socketTimeoutMillis = 30000;
+    }
+
+    @Getter
+    @Setter
+    public static class Replica {
+        /** 읽기 전용 트랜잭션을 보낼 replica 주소. 없으면 모든 요청을 spring.datasource 로 보낸다. */
+        private String url;
+        private String username;
+        private String password;
+        /** 복제 지연이 이 시간(초)보다 크면 replica 대신 primary 에서 읽는다. */
+        private long maxLagSeconds = 5;
+        /** 복제 지연 확인 쿼리와 지연(초) 컬럼. 결과가 없거나 null 이면 복제가 멈춘 것으로 본다. */
+        private String lagQuery = "SHOW SLAVE STATUS";
+        private String lagColumn = "Seconds_Behind_Master";
+        /** 복제 지연 확인 주기(ms) */
+        private long lagCheckIntervalMillis = 1000;
+    }
 }
@@ -0,0 +1,24 @@
+package io.jmlim.springrestapistudy.common;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 핸들러 요청 하나가 실행할 수 있는 SQL 개수와 JDBC 시간. (인증 처리에서 실행하는 SQL 은 제외)
+ * 넘으면 경고 로그를 남기고, my-app.sql-stats.fail-on-budget-exceeded 면 예외를 던진다. (테스트)
+ * 붙이지 않은 핸들러는 my-app.sql-stats 의 max-statements, max-time-millis 를 넘을 때 로그만 남긴다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface SqlBudget {
+
+    /** 최대 SQL 실행 횟수 (배치 실행은 한 번) */
+    int statements();
+
+    /** 최대 JDBC 실행 시간(ms). 음수면 설정값을 사용한다. */
+    long timeMillis() default -1;
+}
@@ -1,23 +1,28 @@
 package io.jmlim.springrestapistudy.configs;
 
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
 import io.jmlim.springrestapistudy.accounts.Account;
 import io.jmlim.springrestapistudy.accounts.AccountRepository;
 import io.jmlim.springrestapistudy.accounts.AccountRole;
 import io.jmlim.springrestapistudy.accounts.AccountService;
 import io.jmlim.springrestapistudy.common.AppProperties;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 @Configuration
+@EnableScheduling
 public class AppConfig {
     //Application.class 에 있던 modelMapper 설정 분리.
     @Bean
@@ -25,13 +30,25 @@ public class AppConfig {
         return new ModelMapper();
     }
 
+    /**
+     * 스프링 부트가 Module 빈을 기본 ObjectMapper 와 HAL ObjectMapper 에 등록한다.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
+    @ConditionalOnProperty(prefix = "my-app.json", name = "afterburner", havingValue = "true")
+    public Module afterburnerModule() {
+        return new AfterburnerModule();
+    }
+
+    @Bean
+    public PasswordEncoder passwordEncoder(AppProperties appProperties, MeterRegistry meterRegistry) {
         /**
          * 스프링 부트 최신버전에 추가.
          * prefix에 따라 적절한 인코딩 사용.
+         * -> bcrypt 강도를 설정으로 바꿀 수 있게 하고, 해싱은 전용 스레드에서만 실행.
          */
-        return PasswordEncoderFactories.createDelegatingPasswordEncoder();
+        AppProperties.Password password = appProperties.getPassword();
+        return new BoundedPasswordEncoder(new UpgradingPasswordEncoder(password.getBcryptStrength()), password,
+                meterRegistry);
     }
 
     @Bean
@@ -0,0 +1,96 @@
+package io.jmlim.springrestapistudy.configs;
+
+import io.jmlim.springrestapistudy.common.AppProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 해싱(encode, matches)을 정해진 개수의 스레드에서만 실행하는 PasswordEncoder.
+ * 로그인이 몰려도 bcrypt 가 CPU 를 모두 차지해서 다른 요청을 처리하지 못하는 일이 없도록 한다.
+ * 대기열이 가득 차면 기다리지 않고 AuthenticationServiceException 을 던진다.
+ *
+ * 스프링의 Executor 빈으로 등록하지 않는다. (@Async 등 다른 작업이 이 스레드를 쓰지 않도록)
+ *
+ * 해싱 시간은 password.hashing (operation=encode|matches), 대기열은 executor.* (name=password-hashing) 지표로 확인한다.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private final PasswordEncoder delegate;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Timer encodeTimer;
+
+    private final Timer matchesTimer;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, AppProperties.Password properties,
+                                  MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.executor = new ThreadPoolExecutor(
+                properties.getHashingThreads(), properties.getHashingThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getHashingQueueCapacity()),
+                new CustomizableThreadFactory("password-hashing-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.encodeTimer = hashingTimer("encode", meterRegistry);
+        this.matchesTimer = hashingTimer("matches", meterRegistry);
+        new ExecutorServiceMetrics(this.executor, "password-hashing", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    private static Timer hashingTimer(String operation, MeterRegistry meterRegistry) {
+        return Timer.builder("password.hashing")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> this.encodeTimer.recordCallable(() -> this.delegate.encode(rawPassword)));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> this.matchesTimer.recordCallable(() -> this.delegate.matches(rawPassword, encodedPassword)));
+    }
+
+    // 해시 문자열만 확인하므로 호출한 스레드에서 바로 실행.
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return this.delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T execute(Callable<T> task) {
+        try {
+            return this.executor.submit(task).get();
+        } catch (RejectedExecutionException e) {
+            throw new AuthenticationServiceException("Too many password hashing requests", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AuthenticationServiceException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new AuthenticationServiceException("Password hashing failed", e.getCause());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        this.executor.shutdown();
+    }
+}
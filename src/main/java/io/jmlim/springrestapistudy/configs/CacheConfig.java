@@ -0,0 +1,39 @@
+package io.jmlim.springrestapistudy.configs;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jmlim.springrestapistudy.common.AppProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Arrays;
+
+/**
+ * 프로세스 내부 캐시 설정.
+ * 캐시는 스프링 캐시 추상화를 통해서만 사용하므로 CacheManager 빈만 바꾸면 분산 캐시로 교체할 수 있다.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String EVENTS = "events";
+
+    public static final String ACCOUNTS = "accounts";
+
+    @Bean
+    public CacheManager cacheManager(AppProperties appProperties) {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(Arrays.asList(
+                caffeineCache(EVENTS, appProperties.getCache().getEvents()),
+                caffeineCache(ACCOUNTS, appProperties.getCache().getAccounts())));
+        return cacheManager;
+    }
+
+    // recordStats 를 켜야 actuator 에서 적중률 등의 지표를 볼 수 있음.
+    private CaffeineCache caffeineCache(String name, String spec) {
+        return new CaffeineCache(name, Caffeine.from(spec).recordStats().build());
+    }
+}
@@ -0,0 +1,440 @@
+package io.jmlim.springrestapistudy.configs;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * 본문을 gzip 또는 deflate 로 압축하는 응답.
+ * 처음 minSize 바이트까지는 풀에서 빌린 버퍼에 모아 두고, 넘으면 그때 Content-Type, 상태 코드를 보고 압축 여부를 정한다.
+ * 끝날 때까지 minSize 를 넘지 않으면 압축하지 않고 Content-Length 와 함께 그대로 보낸다.
+ * 압축한 응답의 ETag 는 본문이 다르므로 "...-gzip" 처럼 압축 방식을 붙인다.
+ */
+class CompressingResponseWrapper extends HttpServletResponseWrapper {
+
+    static final String GZIP = "gzip";
+
+    static final String DEFLATE = "deflate";
+
+    private static final Pattern CODED_ETAG = Pattern.compile("-(" + GZIP + "|" + DEFLATE + ")\"");
+
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private final String encoding;
+
+    private final CompressionPool pool;
+
+    private final int minSize;
+
+    private final List<MediaType> mimeTypes;
+
+    private final String ifNoneMatch;
+
+    private CompressingOutputStream outputStream;
+
+    private PrintWriter writer;
+
+    private long contentLength = -1;
+
+    /**
+     * @param ifNoneMatch 압축 방식을 떼기 전의 If-None-Match. 304 응답에 클라이언트가 가진 ETag 를 돌려주는 데 쓴다.
+     */
+    CompressingResponseWrapper(HttpServletResponse response, String encoding, CompressionPool pool, int minSize,
+                               List<MediaType> mimeTypes, String ifNoneMatch) {
+        super(response);
+        this.encoding = encoding;
+        this.pool = pool;
+        this.minSize = minSize;
+        this.mimeTypes = mimeTypes;
+        this.ifNoneMatch = ifNoneMatch;
+    }
+
+    /**
+     * "abc" -> "abc-gzip", W/"abc" -> W/"abc-gzip"
+     */
+    static String encodeETag(String etag, String encoding) {
+        if (etag.length() < 2 || !etag.endsWith("\"")) {
+            return etag;
+        }
+        return etag.substring(0, etag.length() - 1) + "-" + encoding + "\"";
+    }
+
+    /**
+     * If-None-Match, If-Match 의 ETag 에서 압축 방식을 뗀다. 애플리케이션은 압축 전 ETag 로 비교한다.
+     */
+    static String decodeETags(String header) {
+        return header == null ? null : CODED_ETAG.matcher(header).replaceAll("\"");
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (this.writer != null) {
+            throw new IllegalStateException("getWriter() has already been called");
+        }
+        if (this.outputStream == null) {
+            this.outputStream = new CompressingOutputStream();
+        }
+        return this.outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (this.writer == null) {
+            if (this.outputStream != null) {
+                throw new IllegalStateException("getOutputStream() has already been called");
+            }
+            this.outputStream = new CompressingOutputStream();
+            this.writer = new PrintWriter(new OutputStreamWriter(this.outputStream, getCharacterEncoding()));
+        }
+        return this.writer;
+    }
+
+    // 압축하면 길이가 달라지므로 압축하지 않기로 정했을 때만 전달한다.
+    // HttpMessageConverter 는 Content-Length 를 헤더(addHeader)로 쓰므로 헤더도 가로챈다.
+    @Override
+    public void setContentLength(int len) {
+        this.contentLength = len;
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        this.contentLength = len;
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            this.contentLength = value != null ? Long.parseLong(value) : -1;
+        } else {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            this.contentLength = Long.parseLong(value);
+        } else {
+            super.addHeader(name, value);
+        }
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            this.contentLength = value;
+        } else {
+            super.setIntHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addIntHeader(String name, int value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            this.contentLength = value;
+        } else {
+            super.addIntHeader(name, value);
+        }
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (this.writer != null) {
+            this.writer.flush();
+        }
+        if (this.outputStream != null) {
+            this.outputStream.flush();
+        }
+    }
+
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        if (this.outputStream != null) {
+            this.outputStream.resetBuffer();
+        }
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        this.contentLength = -1;
+        if (this.outputStream != null) {
+            this.outputStream.resetBuffer();
+        }
+    }
+
+    /**
+     * 남은 내용을 쓰고 풀에서 빌린 자원을 반납한다. 여러 번 호출해도 된다.
+     */
+    void finish() throws IOException {
+        if (getStatus() == HttpServletResponse.SC_NOT_MODIFIED) {
+            restoreCodedETag();
+        }
+        if (this.writer != null) {
+            this.writer.flush();
+        }
+        if (this.outputStream != null) {
+            this.outputStream.finish();
+        }
+    }
+
+    /**
+     * 예외로 끝난 경우. 모아 둔 내용은 버리고 자원만 반납한다.
+     */
+    void abort() {
+        if (this.outputStream != null) {
+            this.outputStream.release();
+        }
+    }
+
+    private boolean isCompressible() {
+        HttpServletResponse response = (HttpServletResponse) getResponse();
+        int status = response.getStatus();
+        if (response.isCommitted() || status < 200 || status == HttpServletResponse.SC_NO_CONTENT
+                || status == HttpServletResponse.SC_NOT_MODIFIED || response.getHeader(HttpHeaders.CONTENT_ENCODING) != null
+                || getContentType() == null) {
+            return false;
+        }
+        MediaType contentType = MediaType.parseMediaType(getContentType());
+        return this.mimeTypes.stream().anyMatch(mimeType -> mimeType.includes(contentType));
+    }
+
+    // 304 는 클라이언트가 가진 응답을 그대로 쓰라는 뜻이므로 압축해서 받은 ETag 였으면 그 값을 돌려준다.
+    private void restoreCodedETag() {
+        HttpServletResponse response = (HttpServletResponse) getResponse();
+        String etag = response.getHeader(HttpHeaders.ETAG);
+        if (etag == null || this.ifNoneMatch == null) {
+            return;
+        }
+        for (String coding : new String[]{GZIP, DEFLATE}) {
+            String coded = encodeETag(etag, coding);
+            if (this.ifNoneMatch.contains(coded)) {
+                response.setHeader(HttpHeaders.ETAG, coded);
+                return;
+            }
+        }
+    }
+
+    private enum State {BUFFERING, COMPRESSING, PASS_THROUGH, FINISHED}
+
+    private class CompressingOutputStream extends ServletOutputStream {
+
+        private State state = State.BUFFERING;
+
+        private byte[] buffer;
+
+        private int count;
+
+        private Deflater deflater;
+
+        private byte[] deflated;
+
+        private final CRC32 crc = new CRC32();
+
+        private final boolean gzip = GZIP.equals(encoding);
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            switch (this.state) {
+                case BUFFERING:
+                    if (this.count + len <= minSize) {
+                        if (this.buffer == null) {
+                            this.buffer = pool.borrowBuffer();
+                        }
+                        System.arraycopy(b, off, this.buffer, this.count, len);
+                        this.count += len;
+                        return;
+                    }
+                    if (isCompressible()) {
+                        startCompressing();
+                        deflate(b, off, len);
+                    } else {
+                        startPassThrough(-1);
+                        getResponse().getOutputStream().write(b, off, len);
+                    }
+                    return;
+                case COMPRESSING:
+                    deflate(b, off, len);
+                    return;
+                case PASS_THROUGH:
+                    getResponse().getOutputStream().write(b, off, len);
+                    return;
+                default:
+                    throw new IOException("Response output stream has already been closed");
+            }
+        }
+
+        /**
+         * 최소 크기를 넘지 않았으면 아직 압축 여부를 정할 수 없으므로 모아 둔 채로 둔다.
+         */
+        @Override
+        public void flush() throws IOException {
+            if (this.state == State.COMPRESSING) {
+                // 지금까지 입력을 모두 내보낸다. (스트리밍 응답)
+                drain(Deflater.SYNC_FLUSH);
+                getResponse().getOutputStream().flush();
+            } else if (this.state == State.PASS_THROUGH) {
+                getResponse().getOutputStream().flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        // 압축한 내용은 블로킹으로 쓰므로 항상 쓸 수 있는 상태로 알린다.
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            try {
+                writeListener.onWritePossible();
+            } catch (IOException e) {
+                writeListener.onError(e);
+            }
+        }
+
+        void resetBuffer() {
+            if (this.state == State.BUFFERING) {
+                this.count = 0;
+            }
+        }
+
+        private void startCompressing() throws IOException {
+            this.state = State.COMPRESSING;
+            HttpServletResponse response = (HttpServletResponse) getResponse();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+            String etag = response.getHeader(HttpHeaders.ETAG);
+            if (etag != null) {
+                response.setHeader(HttpHeaders.ETAG, encodeETag(etag, encoding));
+            }
+            this.deflater = pool.borrowDeflater(this.gzip);
+            this.deflated = pool.borrowBuffer();
+            if (this.gzip) {
+                response.getOutputStream().write(GZIP_HEADER);
+            }
+            if (this.count > 0) {
+                deflate(this.buffer, 0, this.count);
+            }
+            releaseBuffer();
+        }
+
+        private void startPassThrough(long length) throws IOException {
+            this.state = State.PASS_THROUGH;
+            if (length >= 0) {
+                getResponse().setContentLengthLong(length);
+            } else if (contentLength >= 0) {
+                getResponse().setContentLengthLong(contentLength);
+            }
+            if (this.count > 0) {
+                getResponse().getOutputStream().write(this.buffer, 0, this.count);
+            }
+            releaseBuffer();
+        }
+
+        private void deflate(byte[] b, int off, int len) throws IOException {
+            if (this.gzip) {
+                this.crc.update(b, off, len);
+            }
+            this.deflater.setInput(b, off, len);
+            while (!this.deflater.needsInput()) {
+                writeDeflated(this.deflater.deflate(this.deflated, 0, this.deflated.length, Deflater.NO_FLUSH));
+            }
+        }
+
+        private void drain(int flush) throws IOException {
+            int length;
+            do {
+                length = this.deflater.deflate(this.deflated, 0, this.deflated.length, flush);
+                writeDeflated(length);
+            } while (length == this.deflated.length);
+        }
+
+        private void writeDeflated(int length) throws IOException {
+            if (length > 0) {
+                getResponse().getOutputStream().write(this.deflated, 0, length);
+            }
+        }
+
+        void finish() throws IOException {
+            if (this.state == State.FINISHED) {
+                return;
+            }
+            try {
+                if (this.state == State.BUFFERING) {
+                    if (this.count >= minSize && isCompressible()) {
+                        startCompressing();
+                    } else {
+                        startPassThrough(this.count);
+                    }
+                }
+                if (this.state == State.COMPRESSING) {
+                    this.deflater.finish();
+                    while (!this.deflater.finished()) {
+                        writeDeflated(this.deflater.deflate(this.deflated));
+                    }
+                    if (this.gzip) {
+                        writeTrailer();
+                    }
+                }
+                getResponse().getOutputStream().flush();
+            } finally {
+                release();
+            }
+        }
+
+        // CRC32 와 원본 길이 (little endian)
+        private void writeTrailer() throws IOException {
+            long crc = this.crc.getValue();
+            long size = this.deflater.getBytesRead();
+            byte[] trailer = new byte[8];
+            for (int i = 0; i < 4; i++) {
+                trailer[i] = (byte) (crc >> (8 * i));
+                trailer[4 + i] = (byte) (size >> (8 * i));
+            }
+            getResponse().getOutputStream().write(trailer);
+        }
+
+        private void releaseBuffer() {
+            if (this.buffer != null) {
+                pool.release(this.buffer);
+                this.buffer = null;
+            }
+            this.count = 0;
+        }
+
+        void release() {
+            this.state = State.FINISHED;
+            releaseBuffer();
+            if (this.deflater != null) {
+                pool.release(this.deflater, this.gzip);
+                this.deflater = null;
+            }
+            if (this.deflated != null) {
+                pool.release(this.deflated);
+                this.deflated = null;
+            }
+        }
+    }
+}
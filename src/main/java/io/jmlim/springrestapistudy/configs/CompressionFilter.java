@@ -0,0 +1,163 @@
+package io.jmlim.springrestapistudy.configs;
+
+import io.jmlim.springrestapistudy.common.AppProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 응답 본문 압축 (gzip, deflate). my-app.compression 으로 설정한다.
+ * Accept-Encoding 에 gzip 이 있으면 gzip, 없고 deflate 가 있으면 deflate 로 압축한다.
+ * min-size 보다 작은 응답과 mime-types 에 없는 응답은 압축하지 않는다.
+ * 압축한 응답의 ETag 에는 압축 방식을 붙이고(CompressingResponseWrapper), 조건부 요청에서는 다시 떼어서 비교한다.
+ *
+ * 서블릿 컨테이너(server.compression)와 달리 Deflater 와 버퍼를 풀에서 재사용하고, 배포 환경(WAR 등)과 상관없이 동작한다.
+ */
+@Component
+public class CompressionFilter extends OncePerRequestFilter {
+
+    private final AppProperties.Compression properties;
+
+    private final List<MediaType> mimeTypes;
+
+    private final CompressionPool pool;
+
+    public CompressionFilter(AppProperties appProperties) {
+        this.properties = appProperties.getCompression();
+        this.mimeTypes = this.properties.getMimeTypes().stream().map(MediaType::parseMediaType).collect(Collectors.toList());
+        this.pool = new CompressionPool(this.properties);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !this.properties.isEnabled();
+    }
+
+    // 비동기 조회는 async dispatch 에서 본문을 쓰므로 그때 압축을 마친다.
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        CompressingResponseWrapper wrapper = WebUtils.getNativeResponse(response, CompressingResponseWrapper.class);
+        if (wrapper == null) {
+            // 같은 URL 이라도 Accept-Encoding 에 따라 응답이 다르다.
+            if (!isAsyncDispatch(request)) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            }
+            String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+            if (ifNoneMatch != null || request.getHeader(HttpHeaders.IF_MATCH) != null) {
+                request = new ETagDecodingRequest(request);
+            }
+            String encoding = negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+            if (encoding == null) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            wrapper = new CompressingResponseWrapper(response, encoding, this.pool,
+                    this.properties.getMinSize(), this.mimeTypes, ifNoneMatch);
+        }
+
+        try {
+            filterChain.doFilter(request, wrapper);
+        } catch (IOException | ServletException | RuntimeException e) {
+            wrapper.abort();
+            throw e;
+        }
+        if (!isAsyncStarted(request)) {
+            wrapper.finish();
+        }
+    }
+
+    /**
+     * gzip 을 우선한다. q=0 은 받지 않겠다는 뜻이다.
+     */
+    static String negotiate(String acceptEncoding) {
+        if (!StringUtils.hasText(acceptEncoding)) {
+            return null;
+        }
+        boolean deflate = false;
+        for (String token : StringUtils.commaDelimitedListToStringArray(acceptEncoding)) {
+            String[] parts = StringUtils.tokenizeToStringArray(token, ";");
+            if (parts.length == 0 || isRejected(parts)) {
+                continue;
+            }
+            String coding = parts[0].toLowerCase();
+            if (CompressingResponseWrapper.GZIP.equals(coding)) {
+                return CompressingResponseWrapper.GZIP;
+            }
+            deflate |= CompressingResponseWrapper.DEFLATE.equals(coding);
+        }
+        return deflate ? CompressingResponseWrapper.DEFLATE : null;
+    }
+
+    private static boolean isRejected(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String param = parts[i].replace(" ", "");
+            if (param.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2)) <= 0;
+                } catch (NumberFormatException e) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 압축한 응답의 ETag("...-gzip")로 보낸 조건부 요청도 압축 전 ETag 와 비교되도록 압축 방식을 뗀다.
+     */
+    private static class ETagDecodingRequest extends HttpServletRequestWrapper {
+
+        ETagDecodingRequest(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public String getHeader(String name) {
+            String value = super.getHeader(name);
+            return isConditional(name) ? CompressingResponseWrapper.decodeETags(value) : value;
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            Enumeration<String> values = super.getHeaders(name);
+            if (!isConditional(name) || values == null) {
+                return values;
+            }
+            List<String> decoded = new ArrayList<>();
+            while (values.hasMoreElements()) {
+                decoded.add(CompressingResponseWrapper.decodeETags(values.nextElement()));
+            }
+            return Collections.enumeration(decoded);
+        }
+
+        private static boolean isConditional(String name) {
+            return HttpHeaders.IF_NONE_MATCH.equalsIgnoreCase(name) || HttpHeaders.IF_MATCH.equalsIgnoreCase(name);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        this.pool.destroy();
+    }
+}
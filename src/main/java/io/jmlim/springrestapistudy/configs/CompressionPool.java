@@ -0,0 +1,69 @@
+package io.jmlim.springrestapistudy.configs;
+
+import io.jmlim.springrestapistudy.common.AppProperties;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+
+/**
+ * 응답 압축에 쓰는 Deflater 와 버퍼를 재사용하는 풀.
+ * Deflater 는 만들 때마다 네이티브 메모리(zlib 상태 수백 KB)를 할당하므로 요청마다 만들지 않는다.
+ * 풀이 비어 있으면 새로 만들고, 가득 차 있으면 반납한 것을 버린다.
+ */
+class CompressionPool {
+
+    // 버퍼 하나의 최소 크기. 압축 출력 버퍼와 최소 크기 판단용 버퍼로 같이 쓴다.
+    private static final int MIN_BUFFER_SIZE = 8192;
+
+    private final int level;
+
+    private final int bufferSize;
+
+    // gzip 은 헤더, 트레일러를 직접 쓰므로 zlib 헤더 없는(nowrap) Deflater 를 쓴다.
+    private final BlockingQueue<Deflater> gzipDeflaters;
+
+    private final BlockingQueue<Deflater> zlibDeflaters;
+
+    private final BlockingQueue<byte[]> buffers;
+
+    CompressionPool(AppProperties.Compression properties) {
+        this.level = properties.getLevel();
+        this.bufferSize = Math.max(MIN_BUFFER_SIZE, properties.getMinSize());
+        this.gzipDeflaters = new ArrayBlockingQueue<>(properties.getPoolSize());
+        this.zlibDeflaters = new ArrayBlockingQueue<>(properties.getPoolSize());
+        this.buffers = new ArrayBlockingQueue<>(properties.getPoolSize() * 2);
+    }
+
+    Deflater borrowDeflater(boolean nowrap) {
+        Deflater deflater = (nowrap ? this.gzipDeflaters : this.zlibDeflaters).poll();
+        return deflater != null ? deflater : new Deflater(this.level, nowrap);
+    }
+
+    void release(Deflater deflater, boolean nowrap) {
+        deflater.reset();
+        if (!(nowrap ? this.gzipDeflaters : this.zlibDeflaters).offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    byte[] borrowBuffer() {
+        byte[] buffer = this.buffers.poll();
+        return buffer != null ? buffer : new byte[this.bufferSize];
+    }
+
+    void release(byte[] buffer) {
+        this.buffers.offer(buffer);
+    }
+
+    void destroy() {
+        Deflater deflater;
+        while ((deflater = this.gzipDeflaters.poll()) != null) {
+            deflater.end();
+        }
+        while ((deflater = this.zlibDeflaters.poll()) != null) {
+            deflater.end();
+        }
+        this.buffers.clear();
+    }
+}
@@ -0,0 +1,99 @@
+package io.jmlim.springrestapistudy.configs;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.jmlim.springrestapistudy.common.AppProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 커넥션 풀(HikariCP)과 MariaDB 드라이버 설정을 my-app.pool 로 적용한다.
+ * spring.datasource.hikari.* 보다 나중에 적용되므로 같은 항목은 my-app.pool 값이 쓰인다.
+ * 시작할 때 위험하거나 효과가 없는 조합이면 경고 로그를 남긴다.
+ */
+@Slf4j
+@Configuration
+public class ConnectionPoolConfig {
+
+    // 풀은 첫 커넥션을 요청할 때 시작하므로 초기화 전에 설정을 바꾼다.
+    @Bean
+    public static BeanPostProcessor connectionPoolPostProcessor(ObjectProvider<AppProperties> appProperties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource) {
+                    configure(appProperties.getObject(), (HikariDataSource) bean, beanName);
+                }
+                return bean;
+            }
+        };
+    }
+
+    // 빈으로 등록하지 않는 풀(ReplicaRoutingConfig)도 같은 설정을 쓴다.
+    static void configure(AppProperties properties, HikariDataSource dataSource, String name) {
+        apply(properties.getPool(), dataSource);
+        warnings(properties).forEach(warning -> log.warn("Connection pool '{}': {}", name, warning));
+    }
+
+    static void apply(AppProperties.Pool pool, HikariConfig config) {
+        config.setMaximumPoolSize(pool.getMaximumPoolSize());
+        config.setMinimumIdle(pool.getMinimumIdle() != null ? pool.getMinimumIdle() : pool.getMaximumPoolSize());
+        config.setConnectionTimeout(pool.getConnectionTimeoutMillis());
+        config.setIdleTimeout(pool.getIdleTimeoutMillis());
+        config.setMaxLifetime(pool.getMaxLifetimeMillis());
+        config.setLeakDetectionThreshold(pool.getLeakDetectionThresholdMillis());
+        if (isMariaDb(config.getJdbcUrl())) {
+            config.addDataSourceProperty("useServerPrepStmts", pool.isUseServerPrepStmts());
+            config.addDataSourceProperty("cachePrepStmts", pool.isCachePrepStmts());
+            config.addDataSourceProperty("prepStmtCacheSize", pool.getPrepStmtCacheSize());
+            config.addDataSourceProperty("prepStmtCacheSqlLimit", pool.getPrepStmtCacheSqlLimit());
+            config.addDataSourceProperty("rewriteBatchedStatements", pool.isRewriteBatchedStatements());
+            config.addDataSourceProperty("socketTimeout", pool.getSocketTimeoutMillis());
+        }
+    }
+
+    static List<String> warnings(AppProperties properties) {
+        AppProperties.Pool pool = properties.getPool();
+        List<String> warnings = new ArrayList<>();
+        int asyncThreads = properties.getAsyncQuery().getThreads();
+        if (asyncThreads > pool.getMaximumPoolSize()) {
+            warnings.add("async-query.threads (" + asyncThreads + ") is larger than maximum-pool-size ("
+                    + pool.getMaximumPoolSize() + "), async queries will wait for connections");
+        }
+        if (pool.getMinimumIdle() != null && pool.getMinimumIdle() > pool.getMaximumPoolSize()) {
+            warnings.add("minimum-idle is larger than maximum-pool-size");
+        }
+        // 아래 값은 HikariCP 가 기본값으로 바꾸거나 무시한다.
+        if (pool.getConnectionTimeoutMillis() < 250) {
+            warnings.add("connection-timeout-millis below 250 is replaced with 30000");
+        }
+        if (pool.getMaxLifetimeMillis() != 0 && pool.getMaxLifetimeMillis() < 30000) {
+            warnings.add("max-lifetime-millis below 30000 is replaced with 1800000");
+        }
+        long leakDetection = pool.getLeakDetectionThresholdMillis();
+        if (leakDetection > 0 && (leakDetection < 2000
+                || (pool.getMaxLifetimeMillis() > 0 && leakDetection > pool.getMaxLifetimeMillis()))) {
+            warnings.add("leak-detection-threshold-millis must be between 2000 and max-lifetime-millis, it is disabled");
+        }
+        if (pool.isUseServerPrepStmts() && pool.isRewriteBatchedStatements()) {
+            warnings.add("rewrite-batched-statements disables use-server-prep-stmts, statements are prepared on the client");
+        }
+        if (pool.isCachePrepStmts() && !pool.isUseServerPrepStmts()) {
+            warnings.add("cache-prep-stmts has no effect without use-server-prep-stmts");
+        }
+        if (pool.getSocketTimeoutMillis() == 0) {
+            warnings.add("socket-timeout-millis is 0, a stuck query holds its connection forever");
+        }
+        return warnings;
+    }
+
+    private static boolean isMariaDb(String jdbcUrl) {
+        return jdbcUrl != null && (jdbcUrl.startsWith("jdbc:mariadb:") || jdbcUrl.startsWith("jdbc:mysql:"));
+    }
+}
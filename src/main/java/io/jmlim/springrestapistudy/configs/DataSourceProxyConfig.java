@@ -0,0 +1,43 @@
+package io.jmlim.springrestapistudy.configs;
+
+import io.jmlim.springrestapistudy.common.AppProperties;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * 커넥션 풀(DataSource) 을 datasource-proxy 로 감싸서 SQL 실행을 가로챈다.
+ * 설정한 리스너가 없으면 감싸지 않는다. (SQL 마다 프록시 호출과 시간 측정 비용이 들기 때문)
+ */
+@Configuration
+public class DataSourceProxyConfig {
+
+    // BeanPostProcessor 는 다른 빈보다 먼저 만들어지므로 static 으로 등록하고 설정은 나중에 꺼낸다.
+    @Bean
+    public static BeanPostProcessor dataSourceProxyPostProcessor(ObjectProvider<AppProperties> appProperties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource)) {
+                    return bean;
+                }
+                AppProperties properties = appProperties.getObject();
+                ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create((DataSource) bean).name(beanName);
+                boolean proxied = false;
+                if (properties.getSlowQuery().getThresholdMillis() > 0) {
+                    builder.listener(new SlowQueryLogger(properties.getSlowQuery()));
+                    proxied = true;
+                }
+                if (properties.getSqlStats().isEnabled()) {
+                    builder.listener(new SqlStatsListener());
+                    proxied = true;
+                }
+                return proxied ? builder.build() : bean;
+            }
+        };
+    }
+}
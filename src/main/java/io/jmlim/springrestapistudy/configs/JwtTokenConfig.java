@@ -0,0 +1,56 @@
+package io.jmlim.springrestapistudy.configs;
+
+import io.jmlim.springrestapistudy.accounts.AccountUserAuthenticationConverter;
+import io.jmlim.springrestapistudy.common.AppProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.provider.token.DefaultAccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
+import org.springframework.security.oauth2.provider.token.store.KeyStoreKeyFactory;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * my-app.token.mode=jwt 인 경우 서명된 JWT 를 액세스 토큰으로 발급.
+ * 리소스 서버는 토큰 스토어 조회 없이 서명만 검증하고 클레임으로 인증정보를 만든다.
+ * 대신 발급한 토큰은 만료 전까지 폐기할 수 없다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "my-app.token", name = "mode", havingValue = "jwt")
+public class JwtTokenConfig {
+
+    @Bean
+    public JwtAccessTokenConverter accessTokenConverter(AppProperties appProperties) throws NoSuchAlgorithmException {
+        DefaultAccessTokenConverter accessTokenConverter = new DefaultAccessTokenConverter();
+        accessTokenConverter.setUserTokenConverter(new AccountUserAuthenticationConverter());
+
+        JwtAccessTokenConverter converter = new JwtAccessTokenConverter();
+        converter.setKeyPair(keyPair(appProperties.getToken()));
+        converter.setAccessTokenConverter(accessTokenConverter);
+        return converter;
+    }
+
+    @Bean
+    public TokenStore tokenStore(JwtAccessTokenConverter accessTokenConverter) {
+        return new JwtTokenStore(accessTokenConverter);
+    }
+
+    /**
+     * 키스토어가 없으면 기동할 때 키를 만든다.
+     * 이 경우 재시작하면 기존 토큰은 검증되지 않고, 여러 서버에서 쓰려면 같은 키스토어를 지정해야 한다.
+     */
+    private KeyPair keyPair(AppProperties.Token token) throws NoSuchAlgorithmException {
+        if (token.getKeyStore() != null) {
+            return new KeyStoreKeyFactory(token.getKeyStore(), token.getKeyStorePassword().toCharArray())
+                    .getKeyPair(token.getKeyAlias());
+        }
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        return generator.generateKeyPair();
+    }
+}
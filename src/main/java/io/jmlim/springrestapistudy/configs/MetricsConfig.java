@@ -0,0 +1,94 @@
+package io.jmlim.springrestapistudy.configs;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.Repository;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 요청 처리 구간별 실행 시간 지표. /actuator/prometheus 로 수집한다.
+ * 엔드포인트별 시간(http.server.requests)과 HikariCP 커넥션 풀 지표(hikaricp.connections.*)는 스프링 부트가 등록한다.
+ *
+ * - spring.data.repository.invocations : 리포지토리 메소드별 (repository, method, exception)
+ * - event.mapping : EventDto -> Event 매핑 (method)
+ * - event.validation : EventValidator (@Timed)
+ * - password.hashing : bcrypt 해싱 (BoundedPasswordEncoder)
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * @Timed 를 붙인 빈 메소드의 실행 시간을 기록한다.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public MethodMetricsAspect methodMetricsAspect(MeterRegistry meterRegistry) {
+        return new MethodMetricsAspect(meterRegistry);
+    }
+
+    /**
+     * 리포지토리와 MapStruct 가 만든 매퍼 구현체에는 @Timed 를 붙일 수 없으므로 포인트컷으로 잰다.
+     */
+    @Aspect
+    static class MethodMetricsAspect {
+
+        private final MeterRegistry meterRegistry;
+
+        // 리포지토리 프록시 클래스 -> 리포지토리 인터페이스 이름
+        private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+        MethodMetricsAspect(MeterRegistry meterRegistry) {
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Around("target(org.springframework.data.repository.Repository) && !execution(* java.lang.Object.*(..))")
+        public Object timeRepository(ProceedingJoinPoint pjp) throws Throwable {
+            String repository = this.repositoryNames.computeIfAbsent(pjp.getTarget().getClass(),
+                    MethodMetricsAspect::repositoryName);
+            return record(pjp, "spring.data.repository.invocations", "repository", repository);
+        }
+
+        @Around("execution(* io.jmlim.springrestapistudy.events.EventMapper.*(..))")
+        public Object timeMapping(ProceedingJoinPoint pjp) throws Throwable {
+            return record(pjp, "event.mapping");
+        }
+
+        private Object record(ProceedingJoinPoint pjp, String name, String... tags) throws Throwable {
+            Timer.Sample sample = Timer.start(this.meterRegistry);
+            String exception = "none";
+            try {
+                return pjp.proceed();
+            } catch (Throwable e) {
+                exception = e.getClass().getSimpleName();
+                throw e;
+            } finally {
+                sample.stop(Timer.builder(name)
+                        .tags(tags)
+                        .tag("method", pjp.getSignature().getName())
+                        .tag("exception", exception)
+                        .register(this.meterRegistry));
+            }
+        }
+
+        private static String repositoryName(Class<?> proxyClass) {
+            for (Class<?> type : proxyClass.getInterfaces()) {
+                if (type != Repository.class && Repository.class.isAssignableFrom(type)) {
+                    return type.getSimpleName();
+                }
+            }
+            return proxyClass.getSimpleName();
+        }
+    }
+}
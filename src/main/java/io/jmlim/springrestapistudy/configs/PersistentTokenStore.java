@@ -0,0 +1,143 @@
+package io.jmlim.springrestapistudy.configs;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jmlim.springrestapistudy.common.AppProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.security.oauth2.common.ExpiringOAuth2RefreshToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2RefreshToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.store.JdbcTokenStore;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.util.Date;
+
+/**
+ * DB 에 저장하는 토큰 스토어. (테이블은 schema.sql)
+ * 재시작해도 토큰이 유지되고 여러 서버가 같은 토큰을 사용할 수 있다.
+ *
+ * - 만료시간 컬럼을 따로 저장해서 만료된 토큰을 배치로 지울 수 있게 한다. (sweepExpired)
+ * - /api/** 요청마다 DB 를 읽지 않도록 토큰과 인증정보를 짧은 시간 동안 서버 내부에 캐시한다.
+ *   다른 서버에서 폐기한 토큰은 캐시 만료시간 동안은 유효할 수 있다.
+ */
+@Slf4j
+public class PersistentTokenStore extends JdbcTokenStore {
+
+    private static final String UPDATE_ACCESS_TOKEN_EXPIRATION =
+            "update oauth_access_token set expiration = ? where token_id = ?";
+
+    private static final String UPDATE_REFRESH_TOKEN_EXPIRATION =
+            "update oauth_refresh_token set expiration = ? where token_id = ?";
+
+    private static final String DELETE_EXPIRED_ACCESS_TOKENS =
+            "delete from oauth_access_token where expiration < ? limit ?";
+
+    private static final String DELETE_EXPIRED_REFRESH_TOKENS =
+            "delete from oauth_refresh_token where expiration < ? limit ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int sweepBatchSize;
+
+    private final Cache<String, OAuth2AccessToken> accessTokens;
+
+    private final Cache<String, OAuth2Authentication> authentications;
+
+    public PersistentTokenStore(DataSource dataSource, AppProperties.TokenStore properties) {
+        super(dataSource);
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.sweepBatchSize = properties.getSweepBatchSize();
+        this.accessTokens = Caffeine.from(properties.getNearCache()).build();
+        this.authentications = Caffeine.from(properties.getNearCache()).build();
+    }
+
+    /**
+     * 만료시간은 JdbcTokenStore 의 insert 뒤에 따로 쓰므로 한 트랜잭션으로 묶는다.
+     * (만료시간 없이 남은 토큰은 sweepExpired 로 지워지지 않는다)
+     */
+    @Override
+    public void storeAccessToken(OAuth2AccessToken token, OAuth2Authentication authentication) {
+        this.transactionTemplate.execute(status -> {
+            super.storeAccessToken(token, authentication);
+            if (token.getExpiration() != null) {
+                this.jdbcTemplate.update(UPDATE_ACCESS_TOKEN_EXPIRATION,
+                        new Timestamp(token.getExpiration().getTime()), extractTokenKey(token.getValue()));
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void storeRefreshToken(OAuth2RefreshToken refreshToken, OAuth2Authentication authentication) {
+        this.transactionTemplate.execute(status -> {
+            super.storeRefreshToken(refreshToken, authentication);
+            if (refreshToken instanceof ExpiringOAuth2RefreshToken) {
+                Date expiration = ((ExpiringOAuth2RefreshToken) refreshToken).getExpiration();
+                this.jdbcTemplate.update(UPDATE_REFRESH_TOKEN_EXPIRATION,
+                        new Timestamp(expiration.getTime()), extractTokenKey(refreshToken.getValue()));
+            }
+            return null;
+        });
+    }
+
+    // 없는 토큰(null)은 캐시하지 않는다.
+    @Override
+    public OAuth2AccessToken readAccessToken(String tokenValue) {
+        return this.accessTokens.get(tokenValue, super::readAccessToken);
+    }
+
+    @Override
+    public OAuth2Authentication readAuthentication(String token) {
+        return this.authentications.get(token, super::readAuthentication);
+    }
+
+    @Override
+    public void removeAccessToken(String tokenValue) {
+        super.removeAccessToken(tokenValue);
+        this.accessTokens.invalidate(tokenValue);
+        this.authentications.invalidate(tokenValue);
+    }
+
+    /**
+     * 리프레시 토큰으로는 어떤 액세스 토큰인지 알 수 없으므로 캐시를 모두 비운다. (토큰 갱신 시에만 호출됨)
+     */
+    @Override
+    public void removeAccessTokenUsingRefreshToken(String refreshToken) {
+        super.removeAccessTokenUsingRefreshToken(refreshToken);
+        this.accessTokens.invalidateAll();
+        this.authentications.invalidateAll();
+    }
+
+    /**
+     * 만료된 토큰을 배치 크기만큼씩 나눠서 삭제. 한번에 지우면 테이블 락이 오래 잡힌다.
+     *
+     * @return 삭제한 토큰 수
+     */
+    public int sweepExpired() {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        int deleted = deleteInBatches(DELETE_EXPIRED_ACCESS_TOKENS, now)
+                + deleteInBatches(DELETE_EXPIRED_REFRESH_TOKENS, now);
+        if (deleted > 0) {
+            log.info("Removed {} expired tokens", deleted);
+        }
+        return deleted;
+    }
+
+    private int deleteInBatches(String sql, Timestamp now) {
+        int total = 0;
+        int deleted;
+        do {
+            deleted = this.jdbcTemplate.update(sql, now, this.sweepBatchSize);
+            total += deleted;
+        } while (deleted == this.sweepBatchSize);
+        return total;
+    }
+}
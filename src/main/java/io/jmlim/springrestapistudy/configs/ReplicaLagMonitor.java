@@ -0,0 +1,81 @@
+package io.jmlim.springrestapistudy.configs;
+
+import io.jmlim.springrestapistudy.common.AppProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/**
+ * replica 의 복제 지연을 주기적으로 확인한다. 지연이 max-lag-seconds 보다 크거나, 복제가 멈췄거나, 접속할 수 없으면
+ * 읽기 전용 트랜잭션도 primary 로 보낸다. (ReplicaRoutingDataSource)
+ * 첫 확인 전까지는 primary 를 사용한다.
+ *
+ * 지표 : replica.lag (초, 확인 실패 시 -1), replica.available (1, 0)
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final AppProperties.Replica properties;
+
+    private volatile boolean available;
+
+    private volatile boolean checked;
+
+    private volatile long lagSeconds = -1;
+
+    public ReplicaLagMonitor(DataSource replica, AppProperties.Replica properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = new JdbcTemplate(replica);
+        // 스케줄러 스레드를 오래 잡지 않도록
+        this.jdbcTemplate.setQueryTimeout(Math.max(1, (int) (properties.getLagCheckIntervalMillis() / 1000)));
+        this.properties = properties;
+        Gauge.builder("replica.lag", this, monitor -> monitor.lagSeconds)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("replica.available", this, monitor -> monitor.available ? 1 : 0)
+                .register(meterRegistry);
+    }
+
+    public boolean isAvailable() {
+        return this.available;
+    }
+
+    @Scheduled(fixedDelayString = "${my-app.replica.lag-check-interval-millis:1000}")
+    public void check() {
+        Number lag;
+        try {
+            lag = this.jdbcTemplate.query(this.properties.getLagQuery(),
+                    rs -> rs.next() ? (Number) rs.getObject(this.properties.getLagColumn()) : null);
+        } catch (DataAccessException e) {
+            update(false, -1, "replica lag check failed: " + e.getMessage());
+            return;
+        }
+        if (lag == null) {
+            update(false, -1, "replica is not replicating");
+        } else if (lag.longValue() > this.properties.getMaxLagSeconds()) {
+            update(false, lag.longValue(), "replica lag " + lag + "s exceeds " + this.properties.getMaxLagSeconds() + "s");
+        } else {
+            update(true, lag.longValue(), "replica lag " + lag + "s");
+        }
+    }
+
+    // 처음 확인할 때와 상태가 바뀔 때만 로그를 남긴다.
+    private void update(boolean available, long lagSeconds, String reason) {
+        this.lagSeconds = lagSeconds;
+        if (!this.checked || this.available != available) {
+            if (available) {
+                log.info("Reading from replica ({})", reason);
+            } else {
+                log.warn("Reading from primary instead of replica ({})", reason);
+            }
+        }
+        this.available = available;
+        this.checked = true;
+    }
+}
@@ -0,0 +1,79 @@
+package io.jmlim.springrestapistudy.configs;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.jmlim.springrestapistudy.common.AppProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * my-app.replica.url 이 있으면 읽기 전용 트랜잭션을 replica 로 보낸다.
+ * primary 는 spring.datasource 설정으로 만들고, JPA 와 JdbcTemplate 은 둘을 고르는 dataSource 를 사용한다.
+ * 커넥션 풀 설정(my-app.pool)은 두 풀에 같이 적용된다.
+ *
+ * DataSource 빈이 만들어질 때마다 스키마 초기화(DataSourceInitializerInvoker)가 dataSource 를 찾으므로
+ * 두 풀을 빈으로 등록하면 순환 참조가 된다. 풀은 dataSource 가 만들고 닫는다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "my-app.replica", name = "url")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @Primary
+    public ReplicaRoutingDataSource dataSource(DataSourceProperties properties, AppProperties appProperties,
+                                               Environment environment, MeterRegistry meterRegistry) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+
+        AppProperties.Replica replicaProperties = appProperties.getReplica();
+        HikariDataSource replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(replicaProperties.getUrl())
+                .username(replicaProperties.getUsername())
+                .password(replicaProperties.getPassword())
+                .build();
+
+        configure(primary, ReplicaRoutingDataSource.PRIMARY, appProperties, meterRegistry);
+        configure(replica, ReplicaRoutingDataSource.REPLICA, appProperties, meterRegistry);
+        ReplicaLagMonitor lagMonitor = new ReplicaLagMonitor(replica, replicaProperties, meterRegistry);
+        return new ReplicaRoutingDataSource(primary, replica, lagMonitor);
+    }
+
+    // @Scheduled 로 복제 지연을 확인하도록 빈으로 꺼낸다. dataSource 는 datasource-proxy 로 감싸져 있을 수 있다.
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(DataSource dataSource) {
+        return DataSourceUnwrapper.unwrap(dataSource, ReplicaRoutingDataSource.class).getLagMonitor();
+    }
+
+    /**
+     * OSIV 로 요청 동안 EntityManager 가 열려 있어도 트랜잭션마다 커넥션을 다시 얻어서 primary, replica 를 고르도록 한다.
+     * (기본값 DELAYED_ACQUISITION_AND_HOLD 는 요청에서 처음 얻은 커넥션을 끝까지 쓰므로 조회 후 저장이 replica 로 간다)
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    private static void configure(HikariDataSource dataSource, String name, AppProperties appProperties,
+                                  MeterRegistry meterRegistry) {
+        dataSource.setPoolName(name);
+        ConnectionPoolConfig.configure(appProperties, dataSource, name);
+        // 빈이 아니므로 hikaricp.* 지표도 직접 연결한다. (pool 태그로 구분)
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+    }
+}
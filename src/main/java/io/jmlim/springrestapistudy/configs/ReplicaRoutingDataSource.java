@@ -0,0 +1,70 @@
+package io.jmlim.springrestapistudy.configs;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 읽기 전용 트랜잭션(@Transactional(readOnly = true), Spring Data 조회 메소드)은 replica, 나머지는 primary 로 보낸다.
+ * replica 가 지연되거나 멈췄으면(ReplicaLagMonitor) 읽기도 primary 로 보낸다.
+ *
+ * 트랜잭션 속성이 정해진 뒤에 커넥션을 고르도록 첫 SQL 을 실행할 때 커넥션을 얻는다. (LazyConnectionDataSourceProxy)
+ * 두 풀은 빈이 아니므로 여기서 닫는다.
+ */
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+    static final String PRIMARY = "primary";
+
+    static final String REPLICA = "replica";
+
+    private final HikariDataSource primary;
+
+    private final HikariDataSource replica;
+
+    private final ReplicaLagMonitor lagMonitor;
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, HikariDataSource replica, ReplicaLagMonitor lagMonitor) {
+        this.primary = primary;
+        this.replica = replica;
+        this.lagMonitor = lagMonitor;
+
+        AbstractRoutingDataSource routing = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && lagMonitor.isAvailable()
+                        ? REPLICA : PRIMARY;
+            }
+        };
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        targets.put(REPLICA, replica);
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        setTargetDataSource(routing);
+        afterPropertiesSet();
+    }
+
+    HikariDataSource getPrimary() {
+        return this.primary;
+    }
+
+    HikariDataSource getReplica() {
+        return this.replica;
+    }
+
+    ReplicaLagMonitor getLagMonitor() {
+        return this.lagMonitor;
+    }
+
+    @Override
+    public void close() {
+        this.replica.close();
+        this.primary.close();
+    }
+}
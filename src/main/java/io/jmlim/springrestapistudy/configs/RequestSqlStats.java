@@ -0,0 +1,68 @@
+package io.jmlim.springrestapistudy.configs;
+
+import io.jmlim.springrestapistudy.common.SqlBudget;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 요청 하나에서 실행한 SQL 개수와 JDBC 시간. 요청 속성에 둔다.
+ * 비동기 조회(EventQueryExecutor)는 작업 스레드에 요청 정보를 넘기므로 같은 요청으로 센다.
+ */
+final class RequestSqlStats {
+
+    private static final String ATTRIBUTE = RequestSqlStats.class.getName();
+
+    private final AtomicInteger statements = new AtomicInteger();
+
+    private final AtomicLong timeMillis = new AtomicLong();
+
+    private volatile SqlBudget budget;
+
+    static RequestSqlStats get(HttpServletRequest request) {
+        return (RequestSqlStats) request.getAttribute(ATTRIBUTE);
+    }
+
+    static RequestSqlStats start(HttpServletRequest request) {
+        RequestSqlStats stats = new RequestSqlStats();
+        request.setAttribute(ATTRIBUTE, stats);
+        return stats;
+    }
+
+    /**
+     * 현재 스레드가 처리 중인 요청의 통계. 요청 밖(스케줄러, 시작 시)이면 null.
+     */
+    static RequestSqlStats current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        // 비동기 조회는 최초 요청 처리가 끝난(requestCompleted) 뒤에 실행될 수 있으므로 요청에서 직접 꺼낸다.
+        if (attributes instanceof ServletRequestAttributes) {
+            return get(((ServletRequestAttributes) attributes).getRequest());
+        }
+        return null;
+    }
+
+    void add(long elapsedMillis) {
+        this.statements.incrementAndGet();
+        this.timeMillis.addAndGet(elapsedMillis);
+    }
+
+    int getStatements() {
+        return this.statements.get();
+    }
+
+    long getTimeMillis() {
+        return this.timeMillis.get();
+    }
+
+    SqlBudget getBudget() {
+        return this.budget;
+    }
+
+    void setBudget(SqlBudget budget) {
+        this.budget = budget;
+    }
+}
@@ -39,6 +39,9 @@ public class ResourceServerConfig extends ResourceServerConfigurerAdapter {
                     .mvcMatchers(HttpMethod.GET, "/api/**")
                         // 권한설정 잘못되어있었음..
                         .permitAll()
+                    // 상태 확인만 열어 둔다. 지표(/actuator/prometheus 등)는 토큰이 필요하다.
+                    .mvcMatchers(HttpMethod.GET, "/actuator/health")
+                        .permitAll()
                     .anyRequest().authenticated()
                     .and()
                 // 인증이 잘못되었다거나 권한이 없을 때 예외 발생.
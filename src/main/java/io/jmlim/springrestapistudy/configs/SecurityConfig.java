@@ -1,7 +1,9 @@
 package io.jmlim.springrestapistudy.configs;
 
 import io.jmlim.springrestapistudy.accounts.AccountService;
+import io.jmlim.springrestapistudy.common.AppProperties;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.security.servlet.PathRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -14,7 +16,8 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.provider.token.TokenStore;
-import org.springframework.security.oauth2.provider.token.store.InMemoryTokenStore;
+
+import javax.sql.DataSource;
 
 // 우리가 여기 적용하는 설정이 시큐리티 설정이 됨.
 @Configuration
@@ -27,9 +30,17 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     @Autowired
     PasswordEncoder passwordEncoder;
 
+    @Autowired
+    AppProperties appProperties;
+
+    /**
+     * 메모리에 저장하면 재시작 시 토큰이 사라지고 서버끼리 공유가 안되므로 DB 에 저장.
+     * jwt 모드는 JwtTokenConfig 참고.
+     */
     @Bean
-    public TokenStore tokenStore() {
-        return new InMemoryTokenStore();
+    @ConditionalOnProperty(prefix = "my-app.token", name = "mode", havingValue = "store", matchIfMissing = true)
+    public TokenStore tokenStore(DataSource dataSource) {
+        return new PersistentTokenStore(dataSource, appProperties.getTokenStore());
     }
 
     /**
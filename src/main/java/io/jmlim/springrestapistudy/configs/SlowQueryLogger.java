@@ -0,0 +1,62 @@
+package io.jmlim.springrestapistudy.configs;
+
+import io.jmlim.springrestapistudy.common.AppProperties;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+import java.util.List;
+
+/**
+ * threshold-millis 이상 걸린 SQL 만 실행 시간과 함께 WARN 으로 남긴다.
+ * 모든 SQL 을 남기는 show-sql, org.hibernate.SQL 로그 대신 운영(prod)에서 사용한다.
+ * 배치 실행은 묶음 전체 시간이다.
+ */
+@Slf4j
+public class SlowQueryLogger implements QueryExecutionListener {
+
+    private final long thresholdMillis;
+
+    private final boolean logParameters;
+
+    public SlowQueryLogger(AppProperties.SlowQuery properties) {
+        this.thresholdMillis = properties.getThresholdMillis();
+        this.logParameters = properties.isLogParameters();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (execInfo.getElapsedTime() < this.thresholdMillis || !log.isWarnEnabled()) {
+            return;
+        }
+        StringBuilder message = new StringBuilder("Slow query ").append(execInfo.getElapsedTime()).append("ms");
+        if (!execInfo.isSuccess()) {
+            message.append(" (failed)");
+        }
+        for (QueryInfo queryInfo : queryInfoList) {
+            message.append("\n  ").append(queryInfo.getQuery());
+            if (this.logParameters) {
+                appendParameters(message, queryInfo);
+            }
+        }
+        log.warn(message.toString());
+    }
+
+    // setXxx(index, value) 호출 순서대로. 배치는 실행 단위로 나눈다.
+    private static void appendParameters(StringBuilder message, QueryInfo queryInfo) {
+        for (List<ParameterSetOperation> parameters : queryInfo.getParametersList()) {
+            message.append("\n    [");
+            for (int i = 0; i < parameters.size(); i++) {
+                Object[] args = parameters.get(i).getArgs();
+                message.append(i == 0 ? "" : ", ").append(args.length > 1 ? args[1] : null);
+            }
+            message.append(']');
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package io.jmlim.springrestapistudy.configs;
+
+import io.jmlim.springrestapistudy.common.SqlBudget;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 요청을 처리할 핸들러의 @SqlBudget 을 SqlStatsFilter 가 검사할 수 있도록 요청 통계에 넣는다.
+ */
+@Configuration
+public class SqlStatsConfig implements WebMvcConfigurer {
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptorAdapter() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                RequestSqlStats stats = RequestSqlStats.get(request);
+                if (stats != null && handler instanceof HandlerMethod) {
+                    SqlBudget budget = ((HandlerMethod) handler).getMethodAnnotation(SqlBudget.class);
+                    if (budget != null) {
+                        stats.setBudget(budget);
+                    }
+                }
+                return true;
+            }
+        });
+    }
+}
@@ -0,0 +1,95 @@
+package io.jmlim.springrestapistudy.configs;
+
+import io.jmlim.springrestapistudy.common.AppProperties;
+import io.jmlim.springrestapistudy.common.SqlBudget;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 요청별 SQL 개수와 JDBC 시간 집계. my-app.sql-stats 로 설정한다.
+ * 스프링 시큐리티 필터 다음에 실행되므로 토큰, 계정 조회 SQL 은 세지 않는다.
+ *
+ * - http.server.requests.sql.statements, http.server.requests.sql.time 지표 (method, uri)
+ * - 예산(@SqlBudget 또는 max-statements, max-time-millis)을 넘으면 경고 로그
+ * - 응답 헤더 X-SQL-Count, X-SQL-Time (SqlStatsResponseAdvice)
+ */
+@Slf4j
+@Component
+public class SqlStatsFilter extends OncePerRequestFilter {
+
+    private final AppProperties.SqlStats properties;
+
+    private final MeterRegistry meterRegistry;
+
+    public SqlStatsFilter(AppProperties appProperties, MeterRegistry meterRegistry) {
+        this.properties = appProperties.getSqlStats();
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !this.properties.isEnabled();
+    }
+
+    // 비동기 조회는 async dispatch 가 끝나야 SQL 실행이 끝난다.
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestSqlStats stats = RequestSqlStats.get(request);
+        if (stats == null) {
+            stats = RequestSqlStats.start(request);
+        }
+        filterChain.doFilter(request, response);
+        if (!isAsyncStarted(request)) {
+            finish(request, stats);
+        }
+    }
+
+    private void finish(HttpServletRequest request, RequestSqlStats stats) {
+        String uri = (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (uri != null) {
+            DistributionSummary.builder("http.server.requests.sql.statements")
+                    .tags("method", request.getMethod(), "uri", uri)
+                    .register(this.meterRegistry)
+                    .record(stats.getStatements());
+            Timer.builder("http.server.requests.sql.time")
+                    .tags("method", request.getMethod(), "uri", uri)
+                    .register(this.meterRegistry)
+                    .record(stats.getTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        SqlBudget budget = stats.getBudget();
+        int maxStatements = budget != null ? budget.statements() : this.properties.getMaxStatements();
+        long maxTimeMillis = budget != null && budget.timeMillis() >= 0
+                ? budget.timeMillis() : this.properties.getMaxTimeMillis();
+        boolean statementsExceeded = stats.getStatements() > maxStatements;
+        if (!statementsExceeded && stats.getTimeMillis() <= maxTimeMillis) {
+            return;
+        }
+        String message = String.format("%s %s executed %d statements in %dms (budget: %d statements, %dms)",
+                request.getMethod(), request.getRequestURI(), stats.getStatements(), stats.getTimeMillis(),
+                maxStatements, maxTimeMillis);
+        // 시간은 환경에 따라 다르므로 개수만 검사한다.
+        if (statementsExceeded && budget != null && this.properties.isFailOnBudgetExceeded()) {
+            throw new IllegalStateException("SQL budget exceeded: " + message);
+        }
+        log.warn(message);
+    }
+}
@@ -0,0 +1,25 @@
+package io.jmlim.springrestapistudy.configs;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+
+/**
+ * 실행한 SQL 을 현재 요청의 RequestSqlStats 에 더한다.
+ */
+class SqlStatsListener implements QueryExecutionListener {
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        RequestSqlStats stats = RequestSqlStats.current();
+        if (stats != null) {
+            stats.add(execInfo.getElapsedTime());
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package io.jmlim.springrestapistudy.configs;
+
+import io.jmlim.springrestapistudy.common.AppProperties;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * 응답 본문을 쓰기 직전까지 실행한 SQL 개수와 JDBC 시간(ms)을 헤더로 보낸다. (my-app.sql-stats.headers)
+ */
+@ControllerAdvice
+public class SqlStatsResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String SQL_COUNT = "X-SQL-Count";
+
+    public static final String SQL_TIME = "X-SQL-Time";
+
+    private final AppProperties.SqlStats properties;
+
+    public SqlStatsResponseAdvice(AppProperties appProperties) {
+        this.properties = appProperties.getSqlStats();
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return this.properties.isEnabled() && this.properties.isHeaders();
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest) {
+            RequestSqlStats stats = RequestSqlStats.get(((ServletServerHttpRequest) request).getServletRequest());
+            if (stats != null) {
+                response.getHeaders().set(SQL_COUNT, String.valueOf(stats.getStatements()));
+                response.getHeaders().set(SQL_TIME, String.valueOf(stats.getTimeMillis()));
+            }
+        }
+        return body;
+    }
+}
@@ -0,0 +1,25 @@
+package io.jmlim.springrestapistudy.configs;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+import org.springframework.stereotype.Component;
+
+/**
+ * 만료된 토큰을 주기적으로 삭제.
+ */
+@Component
+public class TokenStoreSweeper {
+
+    private final TokenStore tokenStore;
+
+    public TokenStoreSweeper(TokenStore tokenStore) {
+        this.tokenStore = tokenStore;
+    }
+
+    @Scheduled(fixedDelayString = "${my-app.token-store.sweep-interval-millis:60000}")
+    public void sweep() {
+        if (this.tokenStore instanceof PersistentTokenStore) {
+            ((PersistentTokenStore) this.tokenStore).sweepExpired();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package io.jmlim.springrestapistudy.configs;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * bcrypt 로 인코딩하되 강도(cost)를 설정할 수 있는 DelegatingPasswordEncoder.
+ * 다른 방식이거나 bcrypt 강도가 설정과 다른 해시는 upgradeEncoding 이 true 를 리턴하므로 로그인 성공 시 다시 해싱된다.
+ * (AccountService.updatePassword)
+ */
+public class UpgradingPasswordEncoder extends DelegatingPasswordEncoder {
+
+    private static final String BCRYPT = "bcrypt";
+
+    private static final String BCRYPT_PREFIX = "{" + BCRYPT + "}";
+
+    private final int strength;
+
+    public UpgradingPasswordEncoder(int strength) {
+        super(BCRYPT, encoders(strength));
+        this.strength = strength;
+    }
+
+    /**
+     * PasswordEncoderFactories.createDelegatingPasswordEncoder() 와 같은 id 를 등록하고 bcrypt 만 설정한 강도로 바꾼다.
+     * 예전 방식으로 저장된 비밀번호도 로그인할 수 있어야 bcrypt 로 다시 해싱할 수 있다.
+     * scrypt 는 BouncyCastle 이 필요하므로 등록하지 않는다.
+     */
+    @SuppressWarnings("deprecation")
+    private static Map<String, PasswordEncoder> encoders(int strength) {
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(BCRYPT, new BCryptPasswordEncoder(strength));
+        encoders.put("ldap", new org.springframework.security.crypto.password.LdapShaPasswordEncoder());
+        encoders.put("MD4", new org.springframework.security.crypto.password.Md4PasswordEncoder());
+        encoders.put("MD5", new org.springframework.security.crypto.password.MessageDigestPasswordEncoder("MD5"));
+        encoders.put("noop", org.springframework.security.crypto.password.NoOpPasswordEncoder.getInstance());
+        encoders.put("pbkdf2", new Pbkdf2PasswordEncoder());
+        encoders.put("SHA-1", new org.springframework.security.crypto.password.MessageDigestPasswordEncoder("SHA-1"));
+        encoders.put("SHA-256", new org.springframework.security.crypto.password.MessageDigestPasswordEncoder("SHA-256"));
+        encoders.put("sha256", new org.springframework.security.crypto.password.StandardPasswordEncoder());
+        return encoders;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String prefixEncodedPassword) {
+        if (super.upgradeEncoding(prefixEncodedPassword)) {
+            return true;
+        }
+        Integer cost = bcryptCost(prefixEncodedPassword);
+        return cost != null && cost != this.strength;
+    }
+
+    // {bcrypt}$2a$10$... 의 10
+    private static Integer bcryptCost(String prefixEncodedPassword) {
+        if (prefixEncodedPassword == null || !prefixEncodedPassword.startsWith(BCRYPT_PREFIX)) {
+            return null;
+        }
+        String[] parts = prefixEncodedPassword.substring(BCRYPT_PREFIX.length()).split("\\$");
+        try {
+            return parts.length > 2 ? Integer.valueOf(parts[2]) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -1,12 +1,16 @@
 package io.jmlim.springrestapistudy.events;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import io.jmlim.springrestapistudy.accounts.Account;
 import io.jmlim.springrestapistudy.accounts.AccountSerializer;
 import lombok.*;
+import org.springframework.data.domain.DomainEvents;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
 
 /**
  * 자바빈 스펙
@@ -28,10 +32,24 @@ import java.time.LocalDateTime;
 //  @Data를 쓰지 않는 이유가 위의 내용 때문..
 @EqualsAndHashCode(of = "id")
 @Entity
+@EntityListeners(EventEntityListener.class)
+// 목록 조회 조건(EventSpecs)에서 자주 쓰는 조합
+@Table(indexes = {
+        @Index(name = "ix_event_status_begin_event", columnList = "eventStatus, beginEventDateTime"),
+        @Index(name = "ix_event_free_offline_price", columnList = "free, offline, basePrice"),
+        // 가격 범위만 지정한 조회는 위 인덱스의 앞 컬럼(free, offline)이 없어 사용할 수 없다.
+        @Index(name = "ix_event_base_price", columnList = "basePrice"),
+        @Index(name = "ix_event_enrollment", columnList = "beginEnrollmentDateTime, closeEnrollmentDateTime")
+})
 public class Event {
 
+    /**
+     * 기본 전략은 insert 마다 id 를 조회하므로 시퀀스에서 50개씩 미리 할당 받는다. (JDBC 배치 insert 가능)
+     * 시퀀스를 지원하지 않는 DB 에서는 Hibernate 가 테이블로 대신한다.
+     */
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "event_seq")
+    @SequenceGenerator(name = "event_seq", sequenceName = "event_seq", allocationSize = 50)
     private Integer id;
     private String name;
     private String description;
@@ -51,11 +69,32 @@ public class Event {
     @Enumerated(EnumType.STRING)
     private EventStatus eventStatus = EventStatus.DRAFT;
 
-    @ManyToOne
+    // 목록 조회 시 매니저마다 select 가 나가지 않도록 LAZY. 응답에는 manager_id 만 필요하므로 프록시를 초기화하지 않는다.
+    @ManyToOne(fetch = FetchType.LAZY)
     //@JoinColumn(nullable = false)
     @JsonSerialize(using = AccountSerializer.class)    // Account 의 구체적인 알필요가 없음.
     private Account manager;
 
+    // 낙관적 락 및 ETag 용. 응답 본문에는 포함하지 않는다.
+    @Version
+    @JsonIgnore
+    private Integer version;
+
+    /**
+     * 매니저 프록시를 초기화하지 않고 id 로만 비교.
+     */
+    public boolean isManagedBy(Account account) {
+        return this.manager != null && account != null && AccountSerializer.id(this.manager).equals(account.getId());
+    }
+
+    /**
+     * 저장할 때마다 스프링 데이터가 발행한다. (검색 인덱스 갱신, EventIndex)
+     */
+    @DomainEvents
+    Collection<Object> domainEvents() {
+        return Collections.singletonList(new EventSaved(this));
+    }
+
     public void update() {
         // Update free
         if (this.basePrice == 0 && this.maxPrice == 0) {
@@ -1,28 +1,51 @@
 package io.jmlim.springrestapistudy.events;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.jmlim.springrestapistudy.accounts.Account;
 import io.jmlim.springrestapistudy.accounts.CurrentUser;
 import io.jmlim.springrestapistudy.common.ErrorsResource;
-import org.modelmapper.ModelMapper;
+import io.jmlim.springrestapistudy.common.SqlBudget;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.web.PagedResourcesAssembler;
 import org.springframework.hateoas.Link;
 import org.springframework.hateoas.MediaTypes;
 import org.springframework.hateoas.PagedResources;
 import org.springframework.hateoas.Resource;
-import org.springframework.hateoas.mvc.ControllerLinkBuilder;
+import org.springframework.hateoas.Resources;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Controller;
+import org.springframework.util.StringUtils;
+import org.springframework.validation.BeanPropertyBindingResult;
 import org.springframework.validation.Errors;
+import org.springframework.validation.MapBindingResult;
+import org.springframework.validation.ObjectError;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
-import java.util.Optional;
-
-import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
 
 @Controller
 @RequestMapping(value = "/api/events", produces = MediaTypes.HAL_JSON_UTF8_VALUE)
@@ -30,15 +53,51 @@ public class EventController {
 
     private final EventRepository eventRepository;
 
-    private final ModelMapper modelMapper;
+    private final EventMapper eventMapper;
 
     private final EventValidator eventValidator;
 
+    private final EventCountEstimator eventCountEstimator;
+
+    private final SpringValidatorAdapter beanValidator;
+
+    private final ObjectWriter exportWriter;
+
+    private final EventIndex eventIndex;
+
+    private final EventQueryExecutor eventQueryExecutor;
+
+    // 한번에 생성할 수 있는 이벤트 수
+    static final int MAX_BATCH_SIZE = 1000;
+
+    public static final String NDJSON_VALUE = "application/x-ndjson";
+
+    // 내보내기 시 DB 에서 한번에 가져오는 행 수
+    private static final int EXPORT_FETCH_SIZE = 500;
+
+    // 검색 결과 최대 개수
+    static final int MAX_SEARCH_SIZE = 100;
+
+    /**
+     * 조회 요청에 이 헤더가 true 면 DB 작업을 EventQueryExecutor 에서 실행하고 서블릿 스레드는 바로 반환한다.
+     */
+    public static final String ASYNC_HEADER = "X-Async";
+
+    private static final String ASYNC = ASYNC_HEADER + "=true";
 
-    public EventController(EventRepository eventRepository, ModelMapper modelMapper, EventValidator eventValidator) {
+
+    public EventController(EventRepository eventRepository, EventMapper eventMapper, EventValidator eventValidator,
+                           EventCountEstimator eventCountEstimator, Validator beanValidator, ObjectMapper objectMapper,
+                           EventIndex eventIndex, EventQueryExecutor eventQueryExecutor) {
         this.eventRepository = eventRepository;
-        this.modelMapper = modelMapper;
+        this.eventMapper = eventMapper;
         this.eventValidator = eventValidator;
+        this.eventCountEstimator = eventCountEstimator;
+        this.beanValidator = new SpringValidatorAdapter(beanValidator);
+        // 건마다 flush 하지 않고 출력 버퍼가 찰 때 내보낸다.
+        this.exportWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.eventIndex = eventIndex;
+        this.eventQueryExecutor = eventQueryExecutor;
     }
 
     private ResponseEntity badRequest(Errors errors) {
@@ -58,77 +117,417 @@ public class EventController {
             return badRequest(errors);
         }
 
-        // modelMapper를 사용해서 빌더통해 다 옮기지 않고 한번에 옮긴다.
-        Event event = modelMapper.map(eventDto, Event.class);
+        // 빌더로 하나씩 옮기지 않고 MapStruct 가 컴파일 시점에 만든 EventMapper 로 한번에 옮긴다. (리플렉션 없음)
+        Event event = eventMapper.toEvent(eventDto);
 
         //유료인지 무료인지, 온라인인지 오프라인인지 변경.
         event.update();
         // 매니저 정보 현재유저로 설정가능.
         event.setManager(currentUser);
 
-        // event는 모델 매퍼를 통해 새로 만든 객체.
+        // event는 EventMapper 가 EventDto 로 새로 만든 엔티티.
         Event newEvent = eventRepository.save(event);
 
 
         // 링크를 추가하는 부분
         //HATEOAS가 제공하는 linkTo() 와 methodOn() 사용
-        ControllerLinkBuilder selfLinkBuilder = linkTo(EventController.class).slash(newEvent.getId());
-        URI createdUri = selfLinkBuilder.toUri();
+        // -> 요청마다 한번만 기본 경로를 만드는 EventLinks 사용.
+        URI createdUri = URI.create(EventLinks.href(newEvent.getId()));
         EventResource eventResource = new EventResource(event);
-        eventResource.add(linkTo(EventController.class).withRel("query-events"));
+        eventResource.add(EventLinks.events("query-events"));
         // 셀프링크는 EventResource 안에 있으므로 주석처리.
         //eventResource.add(selfLinkBuilder.withSelfRel());
-        eventResource.add(selfLinkBuilder.withRel("update-event"));
+        eventResource.add(EventLinks.event(newEvent.getId(), "update-event"));
         eventResource.add(new Link("/docs/index.html#resources-event-create").withRel("profile"));
-        return ResponseEntity.created(createdUri).body(eventResource);
+        return ResponseEntity.created(createdUri).eTag(EventETags.of(newEvent, true)).body(eventResource);
+    }
+
+    /**
+     * 여러 이벤트를 한번에 생성. 모두 검증한 뒤 하나라도 잘못되었으면 아무것도 저장하지 않는다.
+     * 에러의 objectName 은 events[순번] 이다.
+     * 한 트랜잭션에서 저장하므로 insert 가 JDBC 배치로 묶이고, id 는 시퀀스에서 미리 할당받은 값을 사용한다.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity createEvents(@RequestBody List<EventDto> eventDtos, @CurrentUser Account currentUser) {
+        MapBindingResult errors = new MapBindingResult(new HashMap<>(), "events");
+        if (eventDtos.isEmpty() || eventDtos.size() > MAX_BATCH_SIZE) {
+            errors.reject("wrongSize", "events size must be between 1 and " + MAX_BATCH_SIZE);
+            return badRequest(errors);
+        }
+
+        for (int i = 0; i < eventDtos.size(); i++) {
+            EventDto eventDto = eventDtos.get(i);
+            if (eventDto == null) {
+                errors.addError(new ObjectError("events[" + i + "]", new String[]{"NotNull"}, null, "event is null"));
+                continue;
+            }
+            BeanPropertyBindingResult itemErrors = new BeanPropertyBindingResult(eventDto, "events[" + i + "]");
+            this.beanValidator.validate(eventDto, itemErrors);
+            // 필수값이 없으면 EventValidator 에서 NPE 가 나므로 통과한 경우에만 검사.
+            if (!itemErrors.hasErrors()) {
+                this.eventValidator.validate(eventDto, itemErrors);
+            }
+            itemErrors.getAllErrors().forEach(errors::addError);
+        }
+        if (errors.hasErrors()) {
+            return badRequest(errors);
+        }
+
+        List<Event> events = eventDtos.stream().map(eventDto -> {
+            Event event = this.eventMapper.toEvent(eventDto);
+            event.update();
+            event.setManager(currentUser);
+            return event;
+        }).collect(Collectors.toList());
+        List<Event> newEvents = this.eventRepository.saveAll(events);
+
+        Resources<EventResource> resources = new Resources<>(
+                newEvents.stream().map(EventResource::new).collect(Collectors.toList()));
+        resources.add(EventLinks.events("query-events"));
+        resources.add(new Link("/docs/index.html#resources-events-create-batch").withRel("profile"));
+        return ResponseEntity.status(HttpStatus.CREATED).body(resources);
+    }
+
+    /**
+     * 전체(또는 조건에 맞는) 이벤트를 한 줄에 하나씩 JSON 으로 내보낸다. (NDJSON)
+     * 페이지나 HAL 리소스를 만들지 않고 DB 커서에서 읽는 대로 바로 응답에 쓰므로 데이터 양과 상관없이 메모리 사용량이 일정하다.
+     */
+    @GetMapping(value = "/export", produces = NDJSON_VALUE)
+    public void exportEvents(EventSearch search, HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        try (JsonGenerator generator = this.exportWriter.getFactory().createGenerator(response.getOutputStream())) {
+            // 루트 값 사이에 기본 구분자(공백) 대신 줄바꿈만 쓴다.
+            generator.setRootValueSeparator(null);
+            this.eventRepository.forEachEvent(EventSpecs.search(search), EXPORT_FETCH_SIZE, event -> {
+                try {
+                    this.exportWriter.writeValue(generator, event);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * 이름, 설명, 장소 전문 검색. 관련도 순으로 최대 size 개를 응답한다.
+     * 검색어 문법은 Lucene SimpleQueryParser (공백은 AND, | 는 OR, "..." 는 구문, - 는 제외)
+     */
+    @GetMapping("/search")
+    @SqlBudget(statements = 1)
+    public ResponseEntity searchEvents(@RequestParam(required = false) String q,
+                                       @RequestParam(defaultValue = "20") int size) throws IOException {
+        if (!StringUtils.hasText(q) || size < 1 || size > MAX_SEARCH_SIZE) {
+            Errors errors = new MapBindingResult(new HashMap<>(), "search");
+            errors.reject("wrongSearch", "q is required and size must be between 1 and " + MAX_SEARCH_SIZE);
+            return badRequest(errors);
+        }
+
+        List<Integer> ids = this.eventIndex.search(q, size);
+        // DB 조회 결과는 순서가 없으므로 검색 순서로 다시 정렬.
+        Map<Integer, Event> events = this.eventRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Event::getId, e -> e));
+        Resources<EventResource> resources = new Resources<>(ids.stream()
+                .map(events::get)
+                .filter(Objects::nonNull)
+                .map(EventResource::new)
+                .collect(Collectors.toList()));
+        resources.add(new Link(ServletUriComponentsBuilder.fromCurrentRequest().toUriString()).withSelfRel());
+        resources.add(new Link("/docs/index.html#resources-events-search").withRel("profile"));
+        return ResponseEntity.ok(resources);
+    }
+
+    @GetMapping(value = "/search", headers = ASYNC)
+    @SqlBudget(statements = 1)
+    public DeferredResult<ResponseEntity> searchEventsAsync(@RequestParam(required = false) String q,
+                                                            @RequestParam(defaultValue = "20") int size) {
+        return this.eventQueryExecutor.submit(() -> {
+            try {
+                return searchEvents(q, size);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    @GetMapping(headers = ASYNC)
+    @SqlBudget(statements = 2)
+    public DeferredResult<ResponseEntity> queryEventsAsync(Pageable pageable,
+                                                           EventSearch search,
+                                                           PagedResourcesAssembler<Event> assembler,
+                                                           @RequestParam(required = false) String after,
+                                                           @RequestParam(required = false) String before,
+                                                           @RequestParam(defaultValue = "exact") String count,
+                                                           @RequestParam(required = false) String fields,
+                                                           @CurrentUser Account account,
+                                                           WebRequest webRequest) {
+        return this.eventQueryExecutor.submit(
+                () -> queryEvents(pageable, search, assembler, after, before, count, fields, account, webRequest));
     }
 
     @GetMapping
+    @SqlBudget(statements = 2)
     public ResponseEntity queryEvents(Pageable pageable,
+                                      EventSearch search,
                                       PagedResourcesAssembler<Event> assembler,
+                                      @RequestParam(required = false) String after,
+                                      @RequestParam(required = false) String before,
+                                      @RequestParam(defaultValue = "exact") String count,
+                                      @RequestParam(required = false) String fields,
                                       // @AuthenticationPrincipal User user) {
                                       // @AuthenticationPrincipal AccountAdapter currentUser) {
                                       // @AuthenticationPrincipal(expression = "account") Account account) {
-                                      @CurrentUser Account account) {
+                                      @CurrentUser Account account,
+                                      WebRequest webRequest) {
+
+        // fields 를 지정하면 그 컬럼만 조회하고 응답한다.
+        EventFields eventFields;
+        try {
+            eventFields = EventFields.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return badRequest(fieldsErrors());
+        }
+
+        // after, before 파라미터가 있으면 (빈 값 포함) 커서 기반으로 조회. 없으면 기존 페이지 번호 방식.
+        Specification<Event> spec = EventSpecs.search(search);
+        if (after != null || before != null) {
+            return queryEventsByCursor(spec, pageable, after, before, eventFields, account, webRequest);
+        }
 
-        Page<Event> page = this.eventRepository.findAll(pageable);
+        // count=none 이면 전체 개수 없이, estimate 면 캐시된 근사값으로 응답해서 count(*) 쿼리를 생략한다.
+        // 근사값은 전체 개수이므로 조건이 있으면 estimate 도 정확한 개수를 센다.
+        Page<Event> page;
+        switch (count) {
+            case "exact":
+                page = findPage(spec, pageable, eventFields);
+                break;
+            case "estimate":
+                page = spec == null
+                        ? estimatedPage(this.eventRepository.findSlice(null, pageable, eventFields))
+                        : findPage(spec, pageable, eventFields);
+                break;
+            case "none":
+                return querySlice(this.eventRepository.findSlice(spec, pageable, eventFields), eventFields, account,
+                        webRequest);
+            default:
+                Errors errors = new MapBindingResult(new HashMap<>(), "count");
+                errors.reject("wrongCount", "count must be one of exact, estimate, none");
+                return badRequest(errors);
+        }
+        // 같은 결과면 본문을 만들지 않고 304 응답.
+        if (webRequest.checkNotModified(EventETags.of(page.getContent(), page.getTotalElements(), account != null,
+                eventFields))) {
+            return null;
+        }
         //페이지와 관련된 링크 정보들도 같이 넘겨줌 (현재페이지, 이전페이지, 다음페이지, ...)
         //- Event를 EventResource로 변환해서 받기
         //    - 각 이벤트 마다 self (  e -> new EventResource(e) )
-        PagedResources<Resource<Event>> pagedResources = assembler.toResource(page, e -> new EventResource(e));
+        PagedResources<Resource<Event>> pagedResources = assembler.toResource(page, e -> new EventResource(e, eventFields));
         pagedResources.add(new Link("/docs/index.html#resources-events-list").withRel("profile"));
         if(account != null) {
-            pagedResources.add(linkTo(EventController.class).withRel("create-event"));
+            pagedResources.add(EventLinks.events("create-event"));
         }
         return ResponseEntity.ok(pagedResources);
     }
 
+    private Page<Event> findPage(Specification<Event> spec, Pageable pageable, EventFields fields) {
+        return fields.isAll()
+                ? this.eventRepository.findAll(spec, pageable)
+                : this.eventRepository.findPage(spec, pageable, fields);
+    }
+
+    /**
+     * 근사값을 전체 개수로 사용하는 페이지. 마지막 페이지에서는 정확한 개수를 알 수 있으므로 그 값을 쓴다.
+     */
+    private Page<Event> estimatedPage(Slice<Event> slice) {
+        Pageable pageable = slice.getPageable();
+        long total = slice.hasNext()
+                ? Math.max(this.eventCountEstimator.estimate(), pageable.getOffset() + slice.getNumberOfElements() + 1)
+                : pageable.getOffset() + slice.getNumberOfElements();
+        return new PageImpl<>(slice.getContent(), pageable, total);
+    }
+
+    /**
+     * 전체 개수 없이 다음, 이전 페이지 링크만 제공.
+     */
+    private ResponseEntity querySlice(Slice<Event> slice, EventFields fields, Account account, WebRequest webRequest) {
+        if (webRequest.checkNotModified(EventETags.of(slice.getContent(), slice.hasNext(), slice.hasPrevious(), account != null,
+                fields))) {
+            return null;
+        }
+        Resources<EventResource> resources = new Resources<>(
+                slice.getContent().stream().map(e -> new EventResource(e, fields)).collect(Collectors.toList()));
+        resources.add(new Link(ServletUriComponentsBuilder.fromCurrentRequest().toUriString()).withSelfRel());
+        if (slice.hasNext()) {
+            resources.add(pageLink(slice.nextPageable()).withRel(Link.REL_NEXT));
+        }
+        if (slice.hasPrevious()) {
+            resources.add(pageLink(slice.previousPageable()).withRel(Link.REL_PREVIOUS));
+        }
+        resources.add(new Link("/docs/index.html#resources-events-list").withRel("profile"));
+        if (account != null) {
+            resources.add(EventLinks.events("create-event"));
+        }
+        return ResponseEntity.ok(resources);
+    }
+
+    private Link pageLink(Pageable pageable) {
+        String href = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("page", pageable.getPageNumber())
+                .replaceQueryParam("size", pageable.getPageSize())
+                .toUriString();
+        return new Link(href);
+    }
+
+    /**
+     * 키셋(seek) 페이징. OFFSET 과 count 쿼리 없이 커서 다음 데이터만 조회한다.
+     * 다음 페이지가 있는지 알기 위해 size + 1 개를 조회한다.
+     */
+    private ResponseEntity queryEventsByCursor(Specification<Event> spec, Pageable pageable, String after,
+                                               String before, EventFields fields, Account account,
+                                               WebRequest webRequest) {
+        // 커서에는 정렬 키 하나만 담으므로 정렬은 하나만 받는다. (같은 값이면 id 순)
+        if (pageable.getSort().stream().count() > 1) {
+            return badRequest(cursorErrors());
+        }
+        Sort.Order order = pageable.getSort().stream().findFirst().orElse(Sort.Order.asc("id"));
+        if (after != null && before != null || !EventCursor.isSortable(order.getProperty())) {
+            return badRequest(cursorErrors());
+        }
+
+        boolean backward = before != null;
+        String token = backward ? before : after;
+        EventCursor cursor = null;
+        if (StringUtils.hasText(token)) {
+            try {
+                cursor = EventCursor.decode(token);
+            } catch (IllegalArgumentException e) {
+                return badRequest(cursorErrors());
+            }
+            if (!cursor.matches(order)) {
+                return badRequest(cursorErrors());
+            }
+        }
+
+        // 이전 페이지는 정렬을 뒤집어서 조회한 뒤 다시 뒤집는다.
+        Sort.Order seekOrder = backward
+                ? new Sort.Order(order.isAscending() ? Sort.Direction.DESC : Sort.Direction.ASC, order.getProperty())
+                : order;
+        int size = pageable.getPageSize();
+        List<Event> events = new ArrayList<>(this.eventRepository.findByKeyset(spec, seekOrder, cursor, size + 1, fields));
+        boolean hasMore = events.size() > size;
+        if (hasMore) {
+            events.remove(size);
+        }
+        if (backward) {
+            Collections.reverse(events);
+        }
+
+        boolean hasNext = backward ? cursor != null : hasMore;
+        boolean hasPrev = backward ? hasMore : cursor != null;
+        if (webRequest.checkNotModified(EventETags.of(events, hasNext, hasPrev, account != null, fields))) {
+            return null;
+        }
+
+        Resources<EventResource> resources = new Resources<>(
+                events.stream().map(e -> new EventResource(e, fields)).collect(Collectors.toList()));
+        resources.add(new Link(ServletUriComponentsBuilder.fromCurrentRequest().toUriString()).withSelfRel());
+        if (!events.isEmpty()) {
+            if (hasNext) {
+                EventCursor next = EventCursor.of(events.get(events.size() - 1), order.getProperty(), order.getDirection());
+                resources.add(cursorLink("after", next).withRel(Link.REL_NEXT));
+            }
+            if (hasPrev) {
+                EventCursor prev = EventCursor.of(events.get(0), order.getProperty(), order.getDirection());
+                resources.add(cursorLink("before", prev).withRel(Link.REL_PREVIOUS));
+            }
+        }
+        resources.add(new Link("/docs/index.html#resources-events-list").withRel("profile"));
+        if (account != null) {
+            resources.add(EventLinks.events("create-event"));
+        }
+        return ResponseEntity.ok(resources);
+    }
+
+    private Link cursorLink(String param, EventCursor cursor) {
+        String href = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("after")
+                .replaceQueryParam("before")
+                .replaceQueryParam("page")
+                .replaceQueryParam(param, cursor.encode())
+                .toUriString();
+        return new Link(href);
+    }
+
+    private Errors fieldsErrors() {
+        Errors errors = new MapBindingResult(new HashMap<>(), "eventFields");
+        errors.reject("wrongFields", "fields must be a comma separated list of event properties");
+        return errors;
+    }
+
+    private Errors cursorErrors() {
+        Errors errors = new MapBindingResult(new HashMap<>(), "eventCursor");
+        errors.reject("wrongCursor", "cursor or sort for cursor paging is wrong");
+        return errors;
+    }
+
     @GetMapping("/{id}")
+    @SqlBudget(statements = 1)
     public ResponseEntity getEvent(@PathVariable Integer id,
-                                   @CurrentUser Account currentUser) {
-        Optional<Event> optionalEvent = this.eventRepository.findById(id);
+                                   @RequestParam(required = false) String fields,
+                                   @CurrentUser Account currentUser,
+                                   WebRequest webRequest) {
+        EventFields eventFields;
+        try {
+            eventFields = EventFields.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return badRequest(fieldsErrors());
+        }
+
+        // 단건은 캐시에서 가져오므로 응답 JSON 만 줄인다.
+        Optional<EventSnapshot> optionalEvent = this.eventRepository.findCachedById(id);
 
         //Anti pattern...
         if (!optionalEvent.isPresent()) {
             return ResponseEntity.notFound().build();
         }
 
-        Event event = optionalEvent.get();
-        EventResource eventResource = new EventResource(event);
+        // 캐시한 값은 공유하므로 요청마다 새 Event 로 꺼낸다.
+        Event event = optionalEvent.get().toEvent();
+        boolean updatable = event.isManagedBy(currentUser);
+        // If-None-Match 가 같으면 본문을 만들지 않고 304 응답.
+        if (webRequest.checkNotModified(EventETags.of(event, updatable, eventFields))) {
+            return null;
+        }
+
+        EventResource eventResource = new EventResource(event, eventFields);
         eventResource.add(new Link("/docs/index.html#resources-events-get").withRel("profile"));
         // 글을 쓴 유저와 동일한 경우 update link를 줄 수 있음.
-        if(event.getManager().equals(currentUser)) {
-            eventResource.add(linkTo(EventController.class).slash(event.getId()).withRel("update-event"));
+        if(updatable) {
+            eventResource.add(EventLinks.event(event.getId(), "update-event"));
         }
         return ResponseEntity.ok(eventResource);
     }
 
+    @GetMapping(value = "/{id}", headers = ASYNC)
+    @SqlBudget(statements = 1)
+    public DeferredResult<ResponseEntity> getEventAsync(@PathVariable Integer id,
+                                                        @RequestParam(required = false) String fields,
+                                                        @CurrentUser Account currentUser,
+                                                        WebRequest webRequest) {
+        return this.eventQueryExecutor.submit(() -> getEvent(id, fields, currentUser, webRequest));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity updateEvent(@PathVariable Integer id,
                                       @RequestBody @Valid EventDto eventDto,
                                       Errors errors,
-                                      @CurrentUser Account currentUser) {
-        Optional<Event> optionalEvent = this.eventRepository.findById(id);
+                                      @CurrentUser Account currentUser,
+                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Optional<Event> optionalEvent = this.eventRepository.findWritableById(id);
         if (!optionalEvent.isPresent()) {
             return ResponseEntity.notFound().build();
         }
@@ -145,19 +544,40 @@ public class EventController {
         }
 
         Event existingEvent = optionalEvent.get();
-        if(!existingEvent.getManager().equals(currentUser)) {
+        if(!existingEvent.isManagedBy(currentUser)) {
             return new ResponseEntity(HttpStatus.UNAUTHORIZED);
         }
 
-        this.modelMapper.map(eventDto, existingEvent);
+        // 조회한 이후 다른 사람이 수정했으면 덮어쓰지 않는다.
+        if (ifMatch != null && !EventETags.matches(ifMatch, existingEvent)) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+
+        this.eventMapper.update(eventDto, existingEvent);
+        //유료인지 무료인지, 온라인인지 오프라인인지 변경. (저장 전에 해야 반영됨)
+        existingEvent.update();
 
         Event savedEvent = this.eventRepository.save(existingEvent);
-        //유료인지 무료인지, 온라인인지 오프라인인지 변경.
-        savedEvent.update();
 
         EventResource eventResource = new EventResource(savedEvent);
         eventResource.add(new Link("/docs/index.html#resources-events-update").withRel("profile"));
 
-        return ResponseEntity.ok(eventResource);
+        return ResponseEntity.ok().eTag(EventETags.of(savedEvent, true)).body(eventResource);
+    }
+
+    /**
+     * 조회와 저장 사이에 다른 요청이 먼저 수정한 경우. (@Version 충돌)
+     */
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity conflict() {
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    /**
+     * 비동기 조회 대기열이 가득 찬 경우. 잠시 후 다시 요청하도록 한다.
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity busy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
     }
 }
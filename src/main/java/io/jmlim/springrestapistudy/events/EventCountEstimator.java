@@ -0,0 +1,61 @@
+package io.jmlim.springrestapistudy.events;
+
+import io.jmlim.springrestapistudy.common.AppProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 이벤트 전체 개수의 근사값.
+ * 요청마다 count(*) 를 실행하지 않고 캐시된 값을 돌려주며, 값이 오래되면 백그라운드에서 다시 계산한다.
+ */
+@Slf4j
+@Component
+public class EventCountEstimator {
+
+    private final EventRepository eventRepository;
+
+    private final TaskExecutor taskExecutor;
+
+    private final long refreshNanos;
+
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private volatile long estimate = -1;
+
+    private volatile long refreshedAt;
+
+    public EventCountEstimator(EventRepository eventRepository, TaskExecutor taskExecutor, AppProperties appProperties) {
+        this.eventRepository = eventRepository;
+        this.taskExecutor = taskExecutor;
+        this.refreshNanos = TimeUnit.SECONDS.toNanos(appProperties.getEventCount().getRefreshSeconds());
+    }
+
+    public long estimate() {
+        // 처음 한번은 값이 없으므로 직접 계산.
+        if (this.estimate < 0) {
+            refresh();
+            return this.estimate;
+        }
+        if (System.nanoTime() - this.refreshedAt > this.refreshNanos && this.refreshing.compareAndSet(false, true)) {
+            this.taskExecutor.execute(() -> {
+                try {
+                    refresh();
+                } catch (RuntimeException e) {
+                    log.warn("Failed to refresh event count estimate", e);
+                } finally {
+                    this.refreshing.set(false);
+                }
+            });
+        }
+        return this.estimate;
+    }
+
+    private void refresh() {
+        this.estimate = this.eventRepository.count();
+        this.refreshedAt = System.nanoTime();
+    }
+}
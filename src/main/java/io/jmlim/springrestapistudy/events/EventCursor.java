@@ -0,0 +1,90 @@
+package io.jmlim.springrestapistudy.events;
+
+import lombok.Getter;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 키셋(seek) 페이징에서 사용하는 커서.
+ * 마지막으로 읽은 이벤트의 정렬 키 값과 id 를 담고 있으며 클라이언트에게는 불투명한 토큰(after, before)으로만 전달한다.
+ */
+@Getter
+public class EventCursor {
+
+    /**
+     * 커서 정렬에 사용할 수 있는 프로퍼티와 값 파서. NOT NULL 컬럼만 넣는다.
+     * null 이 들어갈 수 있는 컬럼(name, 일시 필드)은 key > :value 조건에서 null 인 행이 빠지므로 사용할 수 없다.
+     */
+    private static final Map<String, Function<String, Comparable<?>>> SORTABLE = new HashMap<>();
+
+    static {
+        SORTABLE.put("id", Integer::valueOf);
+        SORTABLE.put("basePrice", Integer::valueOf);
+        SORTABLE.put("maxPrice", Integer::valueOf);
+        SORTABLE.put("limitOfEnrollment", Integer::valueOf);
+    }
+
+    private static final String SEPARATOR = "\n";
+
+    private final String property;
+    private final Sort.Direction direction;
+    private final Comparable<?> value;
+    private final Integer id;
+
+    private EventCursor(String property, Sort.Direction direction, Comparable<?> value, Integer id) {
+        this.property = property;
+        this.direction = direction;
+        this.value = value;
+        this.id = id;
+    }
+
+    public static boolean isSortable(String property) {
+        return SORTABLE.containsKey(property);
+    }
+
+    /**
+     * 주어진 이벤트 위치를 가리키는 커서 생성.
+     */
+    public static EventCursor of(Event event, String property, Sort.Direction direction) {
+        Comparable<?> value = (Comparable<?>) new BeanWrapperImpl(event).getPropertyValue(property);
+        return new EventCursor(property, direction, value, event.getId());
+    }
+
+    public String encode() {
+        // 값은 구분자가 포함될 수 있으므로 맨 뒤에 둔다.
+        String raw = property + SEPARATOR + direction.name() + SEPARATOR + id + SEPARATOR + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException 토큰이 잘못되었거나 지원하지 않는 정렬 프로퍼티인 경우
+     */
+    public static EventCursor decode(String token) {
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        String[] parts = raw.split(SEPARATOR, 4);
+        if (parts.length != 4 || !isSortable(parts[0])) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+        try {
+            return new EventCursor(parts[0],
+                    Sort.Direction.fromString(parts[1]),
+                    SORTABLE.get(parts[0]).apply(parts[3]),
+                    Integer.valueOf(parts[2]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+
+    /**
+     * 요청한 정렬과 다른 정렬로 만들어진 커서는 사용할 수 없다.
+     */
+    public boolean matches(Sort.Order order) {
+        return this.property.equals(order.getProperty()) && this.direction == order.getDirection();
+    }
+}
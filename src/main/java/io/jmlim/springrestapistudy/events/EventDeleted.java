@@ -0,0 +1,16 @@
+package io.jmlim.springrestapistudy.events;
+
+import lombok.Getter;
+
+/**
+ * 이벤트가 삭제되었을 때 발행되는 이벤트. (EventEntityListener)
+ */
+@Getter
+public class EventDeleted {
+
+    private final Integer id;
+
+    public EventDeleted(Integer id) {
+        this.id = id;
+    }
+}
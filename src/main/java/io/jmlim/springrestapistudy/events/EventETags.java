@@ -0,0 +1,77 @@
+package io.jmlim.springrestapistudy.events;
+
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * 이벤트 응답의 ETag.
+ * 응답 본문을 직렬화하지 않고 id 와 version 만으로 만든다.
+ */
+final class EventETags {
+
+    private EventETags() {
+    }
+
+    /**
+     * 단건 ETag. 수정 링크가 있는 응답은 본문이 다르므로 구분한다.
+     */
+    static String of(Event event, boolean updatable) {
+        return of(event, updatable, EventFields.ALL);
+    }
+
+    /**
+     * 일부 필드만 응답한 경우. 필드 조합을 . 뒤에 붙인다.
+     */
+    static String of(Event event, boolean updatable, EventFields fields) {
+        String tag = versionTag(event) + (updatable ? "-m" : "");
+        if (!fields.isAll()) {
+            tag += "." + Integer.toHexString(fields.toString().hashCode());
+        }
+        return "\"" + tag + "\"";
+    }
+
+    /**
+     * 목록 ETag. 이벤트의 id, version 과 링크에 영향을 주는 값(전체 개수, 다음 페이지 여부 등)으로 만든다.
+     */
+    static String of(List<Event> events, Object... state) {
+        StringBuilder builder = new StringBuilder();
+        for (Event event : events) {
+            builder.append(versionTag(event)).append(',');
+        }
+        for (Object value : state) {
+            builder.append(value).append(';');
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(builder.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * If-Match 헤더가 현재 이벤트 버전과 같은지 확인. 약한 비교는 허용하지 않는다.
+     */
+    static boolean matches(String ifMatch, Event event) {
+        String current = versionTag(event);
+        for (String tag : StringUtils.commaDelimitedListToStringArray(ifMatch)) {
+            tag = tag.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("\"") && tag.endsWith("\"") && tag.length() > 1) {
+                String value = tag.substring(1, tag.length() - 1);
+                // 일부 필드만 조회한 응답의 ETag 도 버전은 같다.
+                if (value.indexOf('.') >= 0) {
+                    value = value.substring(0, value.indexOf('.'));
+                }
+                if (value.equals(current) || value.equals(current + "-m")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String versionTag(Event event) {
+        return event.getId() + "-" + event.getVersion();
+    }
+}
@@ -0,0 +1,25 @@
+package io.jmlim.springrestapistudy.events;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.PostRemove;
+
+/**
+ * 스프링 데이터의 도메인 이벤트는 저장할 때만 발행되므로 삭제는 JPA 콜백으로 알린다.
+ * (Hibernate 가 스프링 빈으로 생성하므로 주입 받을 수 있다)
+ */
+@Component
+public class EventEntityListener {
+
+    private final ApplicationEventPublisher publisher;
+
+    public EventEntityListener(ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @PostRemove
+    public void postRemove(Event event) {
+        this.publisher.publishEvent(new EventDeleted(event.getId()));
+    }
+}
@@ -0,0 +1,120 @@
+package io.jmlim.springrestapistudy.events;
+
+import io.jmlim.springrestapistudy.accounts.Account;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
+
+/**
+ * 응답에 포함할 이벤트 필드. (fields=id,name,beginEventDateTime)
+ * 목록 조회에서는 필요한 컬럼만 select 하고, 응답 JSON 에도 지정한 필드만 쓴다. 링크는 항상 포함한다.
+ */
+public final class EventFields {
+
+    /**
+     * 지정할 수 있는 필드와 조회한 값을 Event 에 넣는 방법. 순서는 응답 JSON 순서와 같다.
+     * manager 는 FK 값(id)만 조회한다.
+     */
+    private static final Map<String, BiConsumer<Event, Object>> SETTERS = new LinkedHashMap<>();
+
+    static {
+        SETTERS.put("id", (e, v) -> e.setId((Integer) v));
+        SETTERS.put("name", (e, v) -> e.setName((String) v));
+        SETTERS.put("description", (e, v) -> e.setDescription((String) v));
+        SETTERS.put("beginEnrollmentDateTime", (e, v) -> e.setBeginEnrollmentDateTime((LocalDateTime) v));
+        SETTERS.put("closeEnrollmentDateTime", (e, v) -> e.setCloseEnrollmentDateTime((LocalDateTime) v));
+        SETTERS.put("beginEventDateTime", (e, v) -> e.setBeginEventDateTime((LocalDateTime) v));
+        SETTERS.put("endEventDateTime", (e, v) -> e.setEndEventDateTime((LocalDateTime) v));
+        SETTERS.put("location", (e, v) -> e.setLocation((String) v));
+        SETTERS.put("basePrice", (e, v) -> e.setBasePrice((Integer) v));
+        SETTERS.put("maxPrice", (e, v) -> e.setMaxPrice((Integer) v));
+        SETTERS.put("limitOfEnrollment", (e, v) -> e.setLimitOfEnrollment((Integer) v));
+        SETTERS.put("offline", (e, v) -> e.setOffline((Boolean) v));
+        SETTERS.put("free", (e, v) -> e.setFree((Boolean) v));
+        SETTERS.put("eventStatus", (e, v) -> e.setEventStatus((EventStatus) v));
+        SETTERS.put("manager", (e, v) -> e.setManager(v == null ? null : Account.builder().id((Integer) v).build()));
+    }
+
+    static final EventFields ALL = new EventFields(SETTERS.keySet());
+
+    private final Set<String> fields;
+
+    private EventFields(Set<String> fields) {
+        this.fields = Collections.unmodifiableSet(fields);
+    }
+
+    /**
+     * 값이 없으면 전체 필드.
+     *
+     * @throws IllegalArgumentException 없는 필드를 지정한 경우
+     */
+    static EventFields parse(String fields) {
+        if (!StringUtils.hasText(fields)) {
+            return ALL;
+        }
+        Set<String> parsed = new TreeSet<>();
+        for (String field : StringUtils.commaDelimitedListToStringArray(fields)) {
+            field = field.trim();
+            if (!SETTERS.containsKey(field)) {
+                throw new IllegalArgumentException("Unknown event field: " + field);
+            }
+            parsed.add(field);
+        }
+        return parsed.size() == SETTERS.size() ? ALL : new EventFields(parsed);
+    }
+
+    boolean isAll() {
+        return this == ALL;
+    }
+
+    boolean includes(String field) {
+        return this.fields.contains(field);
+    }
+
+    /**
+     * 조회할 필드. 링크와 ETag 에 필요한 id, version 과 정렬 기준 필드(커서 생성용)를 더한다.
+     */
+    Set<String> selection(Iterable<String> sortProperties) {
+        Set<String> selection = new LinkedHashSet<>();
+        selection.add("id");
+        selection.add("version");
+        selection.addAll(this.fields);
+        for (String property : sortProperties) {
+            if (SETTERS.containsKey(property)) {
+                selection.add(property);
+            }
+        }
+        return selection;
+    }
+
+    /**
+     * 조회한 값으로 만든 이벤트. 영속 상태가 아니므로 조회용으로만 쓴다.
+     */
+    static Event toEvent(Map<String, Object> values) {
+        Event event = new Event();
+        event.setEventStatus(null);
+        values.forEach((field, value) -> {
+            if ("version".equals(field)) {
+                event.setVersion((Integer) value);
+            } else {
+                SETTERS.get(field).accept(event, value);
+            }
+        });
+        return event;
+    }
+
+    /**
+     * ETag 구분용. 같은 필드 조합이면 같은 값이다.
+     */
+    @Override
+    public String toString() {
+        return String.join(",", this.fields);
+    }
+}
@@ -0,0 +1,217 @@
+package io.jmlim.springrestapistudy.events;
+
+import io.jmlim.springrestapistudy.common.AppProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.cjk.CJKAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Bits;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 이벤트 이름, 설명, 장소의 전문 검색 인덱스. (프로세스 내부 Lucene)
+ * 이벤트가 저장, 삭제되고 커밋되면 EventSaved, EventDeleted 를 받아서 갱신한다.
+ *
+ * 인덱스는 서버마다 따로 있다. 다른 서버에서 저장했거나 이 서버가 멈춘 동안 바뀐 이벤트는 반영되지 않으므로
+ * 시작할 때 인덱스의 id, version 을 DB 와 비교해서 다르면 다시 만든다.
+ * 검색 결과의 id 로 DB 에서 다시 조회하므로 인덱스에 반영되지 않은 삭제(deleteAllInBatch 등)도 결과에서는 빠진다.
+ */
+@Slf4j
+@Component
+public class EventIndex implements DisposableBean {
+
+    private static final String ID = "id";
+    private static final String NAME = "name";
+    private static final String DESCRIPTION = "description";
+    private static final String LOCATION = "location";
+    private static final String VERSION = "version";
+
+    // 이름이 맞는 경우를 가장 위로
+    private static final Map<String, Float> FIELD_WEIGHTS = new HashMap<>();
+
+    static {
+        FIELD_WEIGHTS.put(NAME, 3f);
+        FIELD_WEIGHTS.put(LOCATION, 2f);
+        FIELD_WEIGHTS.put(DESCRIPTION, 1f);
+    }
+
+    private final EventRepository eventRepository;
+
+    // 한글은 형태소 분석 대신 두 글자씩 나눠서(bigram) 부분 단어로도 찾을 수 있게 한다.
+    private final Analyzer analyzer = new CJKAnalyzer();
+
+    private final IndexWriter indexWriter;
+
+    private final SearcherManager searcherManager;
+
+    public EventIndex(EventRepository eventRepository, AppProperties appProperties) throws IOException {
+        this.eventRepository = eventRepository;
+        String path = appProperties.getSearch().getIndexPath();
+        Directory directory = StringUtils.hasText(path) ? FSDirectory.open(Paths.get(path)) : new ByteBuffersDirectory();
+        this.indexWriter = new IndexWriter(directory, new IndexWriterConfig(this.analyzer));
+        this.searcherManager = new SearcherManager(this.indexWriter, null);
+    }
+
+    /**
+     * 인덱스가 DB 와 다르면 DB 의 이벤트로 다시 만든다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfStale() throws IOException {
+        if (!isStale()) {
+            log.info("Event index is up to date with {} events", this.indexWriter.getDocStats().numDocs);
+            return;
+        }
+        this.indexWriter.deleteAll();
+        this.eventRepository.forEachEvent(null, 500, this::index);
+        this.indexWriter.commit();
+        this.searcherManager.maybeRefresh();
+        log.info("Event index rebuilt with {} events", this.indexWriter.getDocStats().numDocs);
+    }
+
+    /**
+     * 인덱스에 있는 이벤트의 id, version 이 DB 와 하나라도 다르면 true.
+     * version 이 없는 예전 인덱스도 다시 만든다.
+     * 분리된(detached) 엔티티를 저장하면 저장 이벤트의 version 이 DB 보다 낮을 수 있는데, 이때도 다시 만들 뿐 빠뜨리지는 않는다.
+     */
+    boolean isStale() throws IOException {
+        Map<Integer, Long> indexed = new HashMap<>();
+        this.searcherManager.maybeRefreshBlocking();
+        IndexSearcher searcher = this.searcherManager.acquire();
+        try {
+            for (LeafReaderContext leaf : searcher.getIndexReader().leaves()) {
+                LeafReader reader = leaf.reader();
+                Bits liveDocs = reader.getLiveDocs();
+                NumericDocValues ids = DocValues.getNumeric(reader, ID);
+                NumericDocValues versions = DocValues.getNumeric(reader, VERSION);
+                for (int doc = 0; doc < reader.maxDoc(); doc++) {
+                    if (liveDocs != null && !liveDocs.get(doc)) {
+                        continue;
+                    }
+                    if (!ids.advanceExact(doc) || !versions.advanceExact(doc)) {
+                        return true;
+                    }
+                    indexed.put((int) ids.longValue(), versions.longValue());
+                }
+            }
+        } finally {
+            this.searcherManager.release(searcher);
+        }
+
+        Map<Integer, Long> stored = new HashMap<>();
+        for (Object[] row : this.eventRepository.findAllVersions()) {
+            stored.put((Integer) row[0], version((Integer) row[1]));
+        }
+        return !indexed.equals(stored);
+    }
+
+    /**
+     * 롤백된 저장은 반영하지 않도록 커밋 후에 갱신. 트랜잭션 밖에서 저장한 경우에도 반영한다.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventSaved(EventSaved eventSaved) throws IOException {
+        index(eventSaved.getEvent());
+        this.searcherManager.maybeRefresh();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventDeleted(EventDeleted eventDeleted) throws IOException {
+        this.indexWriter.deleteDocuments(new Term(ID, eventDeleted.getId().toString()));
+        this.searcherManager.maybeRefresh();
+    }
+
+    /**
+     * @return 관련도 순으로 정렬된 이벤트 id
+     */
+    public List<Integer> search(String text, int limit) throws IOException {
+        SimpleQueryParser parser = new SimpleQueryParser(this.analyzer, FIELD_WEIGHTS);
+        parser.setDefaultOperator(BooleanClause.Occur.MUST);
+        Query query = parser.parse(text);
+
+        IndexSearcher searcher = this.searcherManager.acquire();
+        try {
+            List<Integer> ids = new ArrayList<>();
+            for (ScoreDoc scoreDoc : searcher.search(query, limit).scoreDocs) {
+                ids.add(Integer.valueOf(searcher.doc(scoreDoc.doc).get(ID)));
+            }
+            return ids;
+        } finally {
+            this.searcherManager.release(searcher);
+        }
+    }
+
+    /**
+     * 갱신은 searcherManager 로 바로 검색되고, 디스크 반영(fsync)은 주기적으로 한다.
+     */
+    @Scheduled(fixedDelayString = "${my-app.search.commit-interval-millis:10000}")
+    public void commit() throws IOException {
+        if (this.indexWriter.hasUncommittedChanges()) {
+            this.indexWriter.commit();
+        }
+    }
+
+    private void index(Event event) {
+        Document document = new Document();
+        document.add(new StringField(ID, event.getId().toString(), Field.Store.YES));
+        // 시작할 때 DB 와 비교하는 용도 (isStale)
+        document.add(new NumericDocValuesField(ID, event.getId()));
+        document.add(new NumericDocValuesField(VERSION, version(event.getVersion())));
+        addText(document, NAME, event.getName());
+        addText(document, DESCRIPTION, event.getDescription());
+        addText(document, LOCATION, event.getLocation());
+        try {
+            this.indexWriter.updateDocument(new Term(ID, event.getId().toString()), document);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long version(Integer version) {
+        return version != null ? version : -1;
+    }
+
+    private static void addText(Document document, String name, String value) {
+        if (value != null) {
+            document.add(new TextField(name, value, Field.Store.NO));
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        this.searcherManager.close();
+        this.indexWriter.close();
+    }
+}
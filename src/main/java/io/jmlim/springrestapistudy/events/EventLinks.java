@@ -0,0 +1,59 @@
+package io.jmlim.springrestapistudy.events;
+
+import org.springframework.hateoas.Link;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.HttpServletRequest;
+
+import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
+
+/**
+ * 이벤트 링크.
+ * linkTo(EventController.class) 는 호출할 때마다 매핑 정보와 현재 요청의 호스트, 포워딩 헤더를 다시 읽으므로
+ * 요청마다 한번만 기본 경로(http://host/api/events)를 만들어 두고 나머지는 문자열을 이어 붙여서 만든다.
+ */
+final class EventLinks {
+
+    private static final String BASE_ATTRIBUTE = EventLinks.class.getName() + ".base";
+
+    private EventLinks() {
+    }
+
+    /**
+     * 현재 요청의 이벤트 목록 주소. 요청이 없으면 (배치 작업 등) 매번 만든다.
+     */
+    static String base() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return linkTo(EventController.class).toString();
+        }
+        // 비동기 조회에서는 요청이 끝난 것으로 표시된 뒤에 호출되므로 RequestAttributes 가 아닌 요청 객체에 저장한다.
+        HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+        String base = (String) request.getAttribute(BASE_ATTRIBUTE);
+        if (base == null) {
+            base = linkTo(EventController.class).toString();
+            request.setAttribute(BASE_ATTRIBUTE, base);
+        }
+        return base;
+    }
+
+    static String href(Integer id) {
+        return base() + "/" + id;
+    }
+
+    /**
+     * 이벤트 목록 링크. (query-events, create-event)
+     */
+    static Link events(String rel) {
+        return new Link(base(), rel);
+    }
+
+    /**
+     * 이벤트 하나의 링크. (self, update-event)
+     */
+    static Link event(Integer id, String rel) {
+        return new Link(href(id), rel);
+    }
+}
@@ -0,0 +1,20 @@
+package io.jmlim.springrestapistudy.events;
+
+import org.mapstruct.Builder;
+import org.mapstruct.Mapper;
+import org.mapstruct.MappingTarget;
+import org.mapstruct.ReportingPolicy;
+
+/**
+ * EventDto -> Event 매핑.
+ * ModelMapper 는 요청마다 리플렉션으로 프로퍼티를 매칭하므로, 컴파일 시점에 MapStruct 가 만든 구현체(EventMapperImpl)를 사용한다.
+ * Dto 에 없는 id, free, offline, eventStatus, manager 는 건드리지 않는다.
+ */
+// 롬복 빌더를 쓰면 eventStatus 기본값(DRAFT)이 빠지므로 기본 생성자 사용.
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE, builder = @Builder(disableBuilder = true))
+public interface EventMapper {
+
+    Event toEvent(EventDto eventDto);
+
+    void update(EventDto eventDto, @MappingTarget Event event);
+}
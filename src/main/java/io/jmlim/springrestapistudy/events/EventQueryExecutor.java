@@ -0,0 +1,76 @@
+package io.jmlim.springrestapistudy.events;
+
+import io.jmlim.springrestapistudy.common.AppProperties;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 비동기 조회 요청(X-Async: true)의 DB 작업을 실행하는 전용 스레드 풀.
+ * 서블릿 스레드는 작업을 넘기고 바로 반환되므로 DB 가 느려져도 요청 스레드가 모두 묶이지 않는다.
+ * 대기열이 가득 차면 RejectedExecutionException 을 바로 던지고(503), 제한 시간이 지나면 아직 시작하지 않은 작업은 실행하지 않는다.
+ *
+ * 스프링의 Executor 빈으로 등록하지 않는다. (@Async 등 다른 작업이 이 스레드를 쓰지 않도록)
+ */
+@Component
+public class EventQueryExecutor implements DisposableBean {
+
+    private final ThreadPoolExecutor executor;
+
+    private final long timeoutMillis;
+
+    public EventQueryExecutor(AppProperties appProperties) {
+        AppProperties.AsyncQuery properties = appProperties.getAsyncQuery();
+        this.executor = new ThreadPoolExecutor(
+                properties.getThreads(), properties.getThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                new CustomizableThreadFactory("event-query-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutMillis = properties.getTimeoutMillis();
+    }
+
+    /**
+     * 작업을 풀에서 실행하고 결과를 DeferredResult 로 돌려준다.
+     * 링크 생성(ServletUriComponentsBuilder.fromCurrentRequest)에 필요하므로 요청 정보를 작업 스레드에 넘긴다.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException 대기열이 가득 찬 경우
+     */
+    public <T> DeferredResult<T> submit(Supplier<T> task) {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        DeferredResult<T> result = new DeferredResult<>(this.timeoutMillis);
+        CompletableFuture<T> future = CompletableFuture.supplyAsync(() -> {
+            RequestContextHolder.setRequestAttributes(requestAttributes);
+            try {
+                return task.get();
+            } finally {
+                RequestContextHolder.resetRequestAttributes();
+            }
+        }, this.executor);
+        future.whenComplete((value, e) -> {
+            if (e == null) {
+                result.setResult(value);
+            } else {
+                result.setErrorResult(e instanceof CompletionException ? e.getCause() : e);
+            }
+        });
+        // 응답 시간이 지났으면 대기 중인 작업은 건너뛴다.
+        result.onTimeout(() -> future.cancel(false));
+        return result;
+    }
+
+    @Override
+    public void destroy() {
+        this.executor.shutdown();
+    }
+}
@@ -1,6 +1,51 @@
 package io.jmlim.springrestapistudy.events;
 
+import io.jmlim.springrestapistudy.configs.CacheConfig;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface EventRepository extends JpaRepository<Event, Integer> {
+import java.util.List;
+import java.util.Optional;
+
+public interface EventRepository extends JpaRepository<Event, Integer>, JpaSpecificationExecutor<Event>,
+        EventRepositoryCustom {
+
+    /**
+     * 단건 조회용 캐시. 조회만 하는 곳에서 사용하고 수정할 엔티티는 findWritableById 로 가져온다.
+     * 캐시한 값은 여러 요청이 공유하므로 엔티티가 아닌 EventSnapshot 으로 읽는다. (manager 는 FK 값만)
+     * 없는 이벤트는 캐시하지 않으므로 생성 시에는 지울 필요가 없다.
+     * 수정 직후 지연된 replica 의 값이 캐시에 남지 않도록 읽기 전용이 아닌 트랜잭션으로 primary 에서 읽는다.
+     */
+    @Cacheable(cacheNames = CacheConfig.EVENTS, unless = "#result == null")
+    @Transactional
+    @Query("select new io.jmlim.springrestapistudy.events.EventSnapshot(e.id, e.name, e.description,"
+            + " e.beginEnrollmentDateTime, e.closeEnrollmentDateTime, e.beginEventDateTime, e.endEventDateTime,"
+            + " e.location, e.basePrice, e.maxPrice, e.limitOfEnrollment, e.offline, e.free, e.eventStatus,"
+            + " e.manager.id, e.version) from Event e where e.id = ?1")
+    Optional<EventSnapshot> findCachedById(Integer id);
+
+    /**
+     * 수정할 이벤트 조회. 읽기 전용 트랜잭션이 아니므로 replica 를 쓰더라도 primary 에서 읽는다.
+     * (복제 지연으로 오래된 version 을 읽어서 수정이 충돌하지 않도록)
+     */
+    @Transactional
+    @Query("select e from Event e where e.id = ?1")
+    Optional<Event> findWritableById(Integer id);
+
+    /**
+     * 모든 이벤트의 id, version. 검색 인덱스가 DB 와 같은지 확인할 때 사용한다. (EventIndex)
+     */
+    @Query("select e.id, e.version from Event e")
+    List<Object[]> findAllVersions();
+
+    /**
+     * 생성, 수정 시 캐시에서 제거.
+     */
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.EVENTS, key = "#result.id")
+    <S extends Event> S save(S event);
 }
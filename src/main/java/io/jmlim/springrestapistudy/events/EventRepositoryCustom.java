@@ -0,0 +1,49 @@
+package io.jmlim.springrestapistudy.events;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 스프링 데이터가 만들어주지 못하는 쿼리를 직접 구현하는 프래그먼트.
+ * 구현체는 EventRepositoryImpl
+ * 조건(spec)이 null 이면 전체를 대상으로 한다.
+ * fields 가 전체 필드가 아니면 필요한 컬럼만 조회해서 만든 (영속 상태가 아닌) 이벤트를 돌려준다.
+ */
+public interface EventRepositoryCustom {
+
+    /**
+     * 키셋(seek) 방식으로 커서 다음의 이벤트를 최대 limit 개 조회한다.
+     * OFFSET 과 count 쿼리를 사용하지 않으므로 깊은 페이지도 첫 페이지와 비용이 같다.
+     *
+     * @param spec   조회 조건
+     * @param order  정렬 기준. 동일한 값은 id 로 한번 더 정렬한다.
+     * @param after  이 커서 이후부터 조회. null 이면 처음부터.
+     * @param limit  최대 조회 개수
+     * @param fields 조회할 필드
+     */
+    List<Event> findByKeyset(Specification<Event> spec, Sort.Order order, EventCursor after, int limit,
+                             EventFields fields);
+
+    /**
+     * 다음 페이지 여부만 알면 되는 경우. Page 와 달리 count 쿼리를 실행하지 않는다.
+     * (size + 1 개를 조회해서 다음 페이지 여부를 판단)
+     */
+    Slice<Event> findSlice(Specification<Event> spec, Pageable pageable, EventFields fields);
+
+    /**
+     * 필요한 컬럼만 조회하는 페이지. 전체 필드는 JpaSpecificationExecutor.findAll(spec, pageable) 을 사용한다.
+     */
+    Page<Event> findPage(Specification<Event> spec, Pageable pageable, EventFields fields);
+
+    /**
+     * 조건에 맞는 이벤트를 id 순으로 하나씩 읽어서 action 에 넘긴다. (전체 내보내기 용)
+     * 결과를 한번에 메모리에 올리지 않고 fetchSize 만큼씩 읽으며, 넘긴 이벤트는 영속성 컨텍스트에서 분리한다.
+     */
+    void forEachEvent(Specification<Event> spec, int fetchSize, Consumer<Event> action);
+}
@@ -0,0 +1,186 @@
+package io.jmlim.springrestapistudy.events;
+
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.repository.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TupleElement;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// 모두 조회이므로 읽기 전용 트랜잭션에서 실행한다. (replica 를 쓰면 replica 에서 읽는다)
+@Transactional(readOnly = true)
+public class EventRepositoryImpl implements EventRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public List<Event> findByKeyset(Specification<Event> spec, Sort.Order order, EventCursor after, int limit,
+                                    EventFields fields) {
+        return getResultList(fields, Collections.singletonList(order.getProperty()), (root, query, cb) -> {
+            Path key = root.get(order.getProperty());
+            Path<Integer> id = root.get("id");
+            boolean ascending = order.isAscending();
+
+            List<Predicate> predicates = new ArrayList<>();
+            addIfNotNull(predicates, spec, root, query, cb);
+            if (after != null) {
+                // (key > :value) or (key = :value and id > :id) - 내림차순이면 부등호 반대
+                Comparable value = after.getValue();
+                if ("id".equals(order.getProperty())) {
+                    predicates.add(ascending ? cb.greaterThan(id, after.getId()) : cb.lessThan(id, after.getId()));
+                } else {
+                    predicates.add(cb.or(
+                            ascending ? cb.greaterThan(key, value) : cb.lessThan(key, value),
+                            cb.and(cb.equal(key, value),
+                                    ascending ? cb.greaterThan(id, after.getId()) : cb.lessThan(id, after.getId()))));
+                }
+            }
+            query.where(predicates.toArray(new Predicate[0]));
+
+            if ("id".equals(order.getProperty())) {
+                query.orderBy(ascending ? cb.asc(id) : cb.desc(id));
+            } else {
+                query.orderBy(ascending ? cb.asc(key) : cb.desc(key), ascending ? cb.asc(id) : cb.desc(id));
+            }
+        }, 0, limit);
+    }
+
+    @Override
+    public Slice<Event> findSlice(Specification<Event> spec, Pageable pageable, EventFields fields) {
+        int size = pageable.getPageSize();
+        List<Event> events = getResultList(fields, sortProperties(pageable), (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            addIfNotNull(predicates, spec, root, query, cb);
+            query.where(predicates.toArray(new Predicate[0]));
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        }, pageable.getOffset(), size + 1);
+        boolean hasNext = events.size() > size;
+        return new SliceImpl<>(hasNext ? events.subList(0, size) : events, pageable, hasNext);
+    }
+
+    @Override
+    public Page<Event> findPage(Specification<Event> spec, Pageable pageable, EventFields fields) {
+        List<Event> events = getResultList(fields, sortProperties(pageable), (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            addIfNotNull(predicates, spec, root, query, cb);
+            query.where(predicates.toArray(new Predicate[0]));
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        }, pageable.getOffset(), pageable.getPageSize());
+        // 첫 페이지가 다 차지 않았거나 마지막 페이지면 count 쿼리를 생략한다.
+        return PageableExecutionUtils.getPage(events, pageable, () -> countEvents(spec));
+    }
+
+    private long countEvents(Specification<Event> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Event> root = query.from(Event.class);
+        List<Predicate> predicates = new ArrayList<>();
+        addIfNotNull(predicates, spec, root, query, cb);
+        query.select(cb.count(root)).where(predicates.toArray(new Predicate[0]));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    @Override
+    public void forEachEvent(Specification<Event> spec, int fetchSize, Consumer<Event> action) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Event> query = cb.createQuery(Event.class);
+        Root<Event> root = query.from(Event.class);
+        List<Predicate> predicates = new ArrayList<>();
+        addIfNotNull(predicates, spec, root, query, cb);
+        query.where(predicates.toArray(new Predicate[0]));
+        query.orderBy(cb.asc(root.get("id")));
+
+        // forward-only 커서로 읽는다. (Hibernate ScrollableResults)
+        try (Stream<Event> events = entityManager.createQuery(query)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultStream()) {
+            events.forEach(event -> {
+                action.accept(event);
+                entityManager.detach(event);
+            });
+        }
+    }
+
+    /**
+     * 전체 필드면 엔티티를, 아니면 필요한 컬럼만 조회해서 이벤트를 만든다.
+     */
+    private List<Event> getResultList(EventFields fields, List<String> sortProperties, QueryCustomizer customizer,
+                                      long first, int max) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        if (fields.isAll()) {
+            CriteriaQuery<Event> query = cb.createQuery(Event.class);
+            customizer.customize(query.from(Event.class), query, cb);
+            return page(entityManager.createQuery(query), first, max).getResultList();
+        }
+
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Event> root = query.from(Event.class);
+        customizer.customize(root, query, cb);
+        List<Selection<?>> selections = new ArrayList<>();
+        for (String field : fields.selection(sortProperties)) {
+            // manager 는 조인하지 않고 FK 컬럼만 읽는다.
+            Path<?> path = "manager".equals(field) ? root.get(field).get("id") : root.get(field);
+            selections.add(path.alias(field));
+        }
+        query.multiselect(selections);
+        return page(entityManager.createQuery(query), first, max).getResultList().stream()
+                .map(tuple -> {
+                    Map<String, Object> values = new LinkedHashMap<>();
+                    for (TupleElement<?> element : tuple.getElements()) {
+                        values.put(element.getAlias(), tuple.get(element));
+                    }
+                    return EventFields.toEvent(values);
+                })
+                .collect(Collectors.toList());
+    }
+
+    private static <T> TypedQuery<T> page(TypedQuery<T> query, long first, int max) {
+        return query.setFirstResult((int) first).setMaxResults(max);
+    }
+
+    private static List<String> sortProperties(Pageable pageable) {
+        return pageable.getSort().stream().map(Sort.Order::getProperty).collect(Collectors.toList());
+    }
+
+    private static void addIfNotNull(List<Predicate> predicates, Specification<Event> spec,
+                                     Root<Event> root, CriteriaQuery<?> query, CriteriaBuilder cb) {
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) {
+                predicates.add(predicate);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface QueryCustomizer {
+        void customize(Root<Event> root, CriteriaQuery<?> query, CriteriaBuilder cb);
+    }
+}
@@ -17,16 +17,30 @@ public class EventResource extends ResourceSupport {
     }
 }*/
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.hateoas.Link;
 import org.springframework.hateoas.Resource;
 
-import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
-
 public class EventResource extends Resource<Event> {
 
+    private final EventFields fields;
+
     public EventResource(Event event, Link... links) {
+        this(event, EventFields.ALL, links);
+    }
+
+    /**
+     * fields 에 있는 필드만 응답한다. (EventResourceSerializer)
+     */
+    public EventResource(Event event, EventFields fields, Link... links) {
         super(event, links);
-        add(linkTo(EventController.class).slash(event.getId()).withSelfRel());
+        this.fields = fields;
+        add(EventLinks.event(event.getId(), Link.REL_SELF));
+    }
+
+    @JsonIgnore
+    public EventFields getFields() {
+        return fields;
     }
 
 }
\ No newline at end of file
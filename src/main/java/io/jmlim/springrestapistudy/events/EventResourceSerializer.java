@@ -0,0 +1,149 @@
+package io.jmlim.springrestapistudy.events;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import io.jmlim.springrestapistudy.accounts.AccountSerializer;
+import org.springframework.boot.jackson.JsonComponent;
+import org.springframework.hateoas.Link;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * EventResource 를 HAL 형식으로 직접 쓰는 직렬화기.
+ * 빈 프로퍼티 탐색, @JsonUnwrapped 처리, HAL 링크 목록을 Map 으로 바꾸는 과정 없이 필드 순서대로 바로 쓴다.
+ * 목록 응답(_embedded.eventList)의 각 이벤트에도 적용된다. fields 를 지정했으면 그 필드와 링크만 쓴다.
+ *
+ * 출력은 기존 Jackson + HAL 모듈 결과와 같아야 한다. (EventResourceSerializerTest)
+ * Event 필드를 추가하거나 바꾸면 여기도 같이 바꾼다.
+ */
+@JsonComponent
+public class EventResourceSerializer extends JsonSerializer<EventResource> {
+
+    @Override
+    public void serialize(EventResource resource, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        Event event = resource.getContent();
+        EventFields fields = resource.getFields();
+        gen.writeStartObject();
+        if (fields.includes("id")) {
+            if (event.getId() == null) {
+                gen.writeNullField("id");
+            } else {
+                gen.writeNumberField("id", event.getId());
+            }
+        }
+        if (fields.includes("name")) {
+            gen.writeStringField("name", event.getName());
+        }
+        if (fields.includes("description")) {
+            gen.writeStringField("description", event.getDescription());
+        }
+        // 날짜 형식은 ObjectMapper 설정을 따른다.
+        if (fields.includes("beginEnrollmentDateTime")) {
+            provider.defaultSerializeField("beginEnrollmentDateTime", event.getBeginEnrollmentDateTime(), gen);
+        }
+        if (fields.includes("closeEnrollmentDateTime")) {
+            provider.defaultSerializeField("closeEnrollmentDateTime", event.getCloseEnrollmentDateTime(), gen);
+        }
+        if (fields.includes("beginEventDateTime")) {
+            provider.defaultSerializeField("beginEventDateTime", event.getBeginEventDateTime(), gen);
+        }
+        if (fields.includes("endEventDateTime")) {
+            provider.defaultSerializeField("endEventDateTime", event.getEndEventDateTime(), gen);
+        }
+        if (fields.includes("location")) {
+            gen.writeStringField("location", event.getLocation());
+        }
+        if (fields.includes("basePrice")) {
+            gen.writeNumberField("basePrice", event.getBasePrice());
+        }
+        if (fields.includes("maxPrice")) {
+            gen.writeNumberField("maxPrice", event.getMaxPrice());
+        }
+        if (fields.includes("limitOfEnrollment")) {
+            gen.writeNumberField("limitOfEnrollment", event.getLimitOfEnrollment());
+        }
+        if (fields.includes("offline")) {
+            gen.writeBooleanField("offline", event.isOffline());
+        }
+        if (fields.includes("free")) {
+            gen.writeBooleanField("free", event.isFree());
+        }
+        if (fields.includes("eventStatus")) {
+            gen.writeStringField("eventStatus", event.getEventStatus() == null ? null : event.getEventStatus().name());
+        }
+        if (fields.includes("manager")) {
+            if (event.getManager() == null) {
+                gen.writeNullField("manager");
+            } else {
+                gen.writeObjectFieldStart("manager");
+                gen.writeNumberField("id", AccountSerializer.id(event.getManager()));
+                gen.writeEndObject();
+            }
+        }
+        writeLinks(resource.getLinks(), gen, provider);
+        gen.writeEndObject();
+    }
+
+    /**
+     * rel 별로 묶어서 쓴다. 링크가 하나면 객체, 여러 개면 배열. 링크가 없으면 _links 를 쓰지 않는다.
+     */
+    private void writeLinks(List<Link> links, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        if (links.isEmpty()) {
+            return;
+        }
+        gen.writeObjectFieldStart("_links");
+        for (int i = 0; i < links.size(); i++) {
+            String rel = links.get(i).getRel();
+            if (indexOf(links, rel) < i) {
+                continue;
+            }
+            gen.writeFieldName(rel);
+            if (lastIndexOf(links, rel) == i) {
+                writeLink(links.get(i), gen, provider);
+                continue;
+            }
+            gen.writeStartArray();
+            for (int j = i; j < links.size(); j++) {
+                if (rel.equals(links.get(j).getRel())) {
+                    writeLink(links.get(j), gen, provider);
+                }
+            }
+            gen.writeEndArray();
+        }
+        gen.writeEndObject();
+    }
+
+    /**
+     * href 만 있는 링크는 직접 쓰고, 템플릿이나 다른 속성이 있으면 HAL 모듈의 Link 직렬화를 사용한다.
+     */
+    private void writeLink(Link link, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        if (link.isTemplated() || link.getHreflang() != null || link.getMedia() != null || link.getTitle() != null
+                || link.getType() != null || link.getDeprecation() != null) {
+            provider.defaultSerializeValue(link, gen);
+            return;
+        }
+        gen.writeStartObject();
+        gen.writeStringField("href", link.getHref());
+        gen.writeEndObject();
+    }
+
+    private static int indexOf(List<Link> links, String rel) {
+        for (int i = 0; i < links.size(); i++) {
+            if (rel.equals(links.get(i).getRel())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(List<Link> links, String rel) {
+        for (int i = links.size() - 1; i >= 0; i--) {
+            if (rel.equals(links.get(i).getRel())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,16 @@
+package io.jmlim.springrestapistudy.events;
+
+import lombok.Getter;
+
+/**
+ * 이벤트가 저장(생성, 수정)되었을 때 발행되는 도메인 이벤트. (Event.domainEvents)
+ */
+@Getter
+public class EventSaved {
+
+    private final Event event;
+
+    public EventSaved(Event event) {
+        this.event = event;
+    }
+}
@@ -0,0 +1,35 @@
+package io.jmlim.springrestapistudy.events;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * 이벤트 목록 조회 조건. (GET /api/events, /api/events/export 의 쿼리 파라미터)
+ * 값이 없는 조건은 사용하지 않는다. 쿼리는 EventSpecs 에서 만든다.
+ */
+@Data
+public class EventSearch {
+    private EventStatus eventStatus;
+    private Boolean free;
+    private Boolean offline;
+    /** basePrice 범위 */
+    private Integer priceFrom;
+    private Integer priceTo;
+    /** beginEventDateTime 범위 */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime beginEventFrom;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime beginEventTo;
+    /** 이 시각에 등록 가능한 (beginEnrollmentDateTime <= t <= closeEnrollmentDateTime) 이벤트 */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime enrollableAt;
+
+    public boolean hasConditions() {
+        return eventStatus != null || free != null || offline != null
+                || priceFrom != null || priceTo != null
+                || beginEventFrom != null || beginEventTo != null
+                || enrollableAt != null;
+    }
+}
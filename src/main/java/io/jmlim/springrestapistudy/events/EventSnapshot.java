@@ -0,0 +1,55 @@
+package io.jmlim.springrestapistudy.events;
+
+import io.jmlim.springrestapistudy.accounts.Account;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * 캐시에 두는 이벤트 단건 조회 결과. (EventRepository.findCachedById)
+ * 여러 요청이 같은 객체를 공유하므로 엔티티 대신 변경할 수 없는 값만 두고, 매니저는 LAZY 프록시 대신 id 만 가진다.
+ */
+@Value
+public class EventSnapshot {
+
+    Integer id;
+    String name;
+    String description;
+    LocalDateTime beginEnrollmentDateTime;
+    LocalDateTime closeEnrollmentDateTime;
+    LocalDateTime beginEventDateTime;
+    LocalDateTime endEventDateTime;
+    String location;
+    int basePrice;
+    int maxPrice;
+    int limitOfEnrollment;
+    boolean offline;
+    boolean free;
+    EventStatus eventStatus;
+    Integer managerId;
+    Integer version;
+
+    /**
+     * 요청마다 새 Event 를 만든다. 영속 상태가 아니며 manager 는 id 만 채운 Account 이다.
+     */
+    Event toEvent() {
+        return Event.builder()
+                .id(this.id)
+                .name(this.name)
+                .description(this.description)
+                .beginEnrollmentDateTime(this.beginEnrollmentDateTime)
+                .closeEnrollmentDateTime(this.closeEnrollmentDateTime)
+                .beginEventDateTime(this.beginEventDateTime)
+                .endEventDateTime(this.endEventDateTime)
+                .location(this.location)
+                .basePrice(this.basePrice)
+                .maxPrice(this.maxPrice)
+                .limitOfEnrollment(this.limitOfEnrollment)
+                .offline(this.offline)
+                .free(this.free)
+                .eventStatus(this.eventStatus)
+                .manager(this.managerId == null ? null : Account.builder().id(this.managerId).build())
+                .version(this.version)
+                .build();
+    }
+}
@@ -0,0 +1,55 @@
+package io.jmlim.springrestapistudy.events;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.Predicate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * EventSearch 조건을 JPA Specification 으로 변환.
+ * 자주 쓰는 조합은 Event 의 @Table 인덱스와 맞춰두었다.
+ */
+public final class EventSpecs {
+
+    private EventSpecs() {
+    }
+
+    /**
+     * @return 조건이 없으면 null (전체)
+     */
+    public static Specification<Event> search(EventSearch search) {
+        if (search == null || !search.hasConditions()) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (search.getEventStatus() != null) {
+                predicates.add(cb.equal(root.get("eventStatus"), search.getEventStatus()));
+            }
+            if (search.getFree() != null) {
+                predicates.add(cb.equal(root.get("free"), search.getFree()));
+            }
+            if (search.getOffline() != null) {
+                predicates.add(cb.equal(root.get("offline"), search.getOffline()));
+            }
+            if (search.getPriceFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("basePrice"), search.getPriceFrom()));
+            }
+            if (search.getPriceTo() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("basePrice"), search.getPriceTo()));
+            }
+            if (search.getBeginEventFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("beginEventDateTime"), search.getBeginEventFrom()));
+            }
+            if (search.getBeginEventTo() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("beginEventDateTime"), search.getBeginEventTo()));
+            }
+            if (search.getEnrollableAt() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("beginEnrollmentDateTime"), search.getEnrollableAt()));
+                predicates.add(cb.greaterThanOrEqualTo(root.get("closeEnrollmentDateTime"), search.getEnrollableAt()));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
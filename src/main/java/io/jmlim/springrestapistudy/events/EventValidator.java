@@ -1,5 +1,6 @@
 package io.jmlim.springrestapistudy.events;
 
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Component;
 import org.springframework.validation.Errors;
 
@@ -8,6 +9,7 @@ import java.time.LocalDateTime;
 
 @Component
 public class EventValidator {
+    @Timed("event.validation")
     public void validate(EventDto eventDto, Errors errors) {
         if (eventDto.getBasePrice() > eventDto.getMaxPrice() && eventDto.getMaxPrice() != 0) {
 /*            errors.rejectValue("basePrice", "wrongValue", "BasePrice is wrong");
@@ -0,0 +1,28 @@
+-- OAuth2 토큰 저장 테이블 (JdbcTokenStore 기본 쿼리 + 만료시간 컬럼)
+-- token_id, authentication_id 는 MD5 값이다.
+-- initialization-mode: always 로 매번 실행한다. longblob, create index if not exists 와 PersistentTokenStore 의
+-- delete ... limit 는 MariaDB(MySQL), H2 문법이므로 다른 DB 는 schema-${platform}.sql 로 따로 만들어야 한다.
+create table if not exists oauth_access_token (
+    token_id          varchar(32),
+    token             longblob,
+    authentication_id varchar(32) primary key,
+    user_name         varchar(256),
+    client_id         varchar(256),
+    authentication    longblob,
+    refresh_token     varchar(32),
+    expiration        datetime
+);
+
+create unique index if not exists ux_oauth_access_token_token_id on oauth_access_token (token_id);
+create index if not exists ix_oauth_access_token_refresh_token on oauth_access_token (refresh_token);
+create index if not exists ix_oauth_access_token_client_user on oauth_access_token (client_id, user_name);
+create index if not exists ix_oauth_access_token_expiration on oauth_access_token (expiration);
+
+create table if not exists oauth_refresh_token (
+    token_id       varchar(32) primary key,
+    token          longblob,
+    authentication longblob,
+    expiration     datetime
+);
+
+create index if not exists ix_oauth_refresh_token_expiration on oauth_refresh_token (expiration);
@@ -1,5 +1,6 @@
 package io.jmlim.springrestapistudy.accounts;
 
+import io.jmlim.springrestapistudy.configs.CacheConfig;
 import org.hamcrest.Matchers;
 import org.junit.Rule;
 import org.junit.Test;
@@ -7,9 +8,15 @@ import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.CredentialsContainer;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
@@ -19,6 +26,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.Assert.fail;
 
 @RunWith(SpringRunner.class)
@@ -38,6 +46,12 @@ public class AccountServiceTest {
     @Autowired
     PasswordEncoder passwordEncoder;
 
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    AuthenticationManager authenticationManager;
+
     @Test
     public void findByUsername() {
         //Given
@@ -94,4 +108,112 @@ public class AccountServiceTest {
         //When
         accountService.loadUserByUsername(username);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void loadUserByUsernameCached() {
+        //Given
+        String username = "cached@email.com";
+        Account account = this.accountService.saveAccount(Account.builder()
+                .email(username)
+                .password("1234")
+                .roles(Stream.of(AccountRole.USER).collect(Collectors.toSet()))
+                .build());
+        Cache cache = this.cacheManager.getCache(CacheConfig.ACCOUNTS);
+
+        //When
+        UserDetails first = this.accountService.loadUserByUsername(username);
+        ((CredentialsContainer) first).eraseCredentials();
+        UserDetails second = this.accountService.loadUserByUsername(username);
+
+        //Then
+        // 계정은 캐시하지만 UserDetails 는 공유하지 않으므로 비밀번호가 지워지지 않는다.
+        assertThat(cache.get(username)).isNotNull();
+        assertThat(second).isNotSameAs(first);
+        assertThat(this.passwordEncoder.matches("1234", second.getPassword())).isTrue();
+
+        // 계정을 수정하면 캐시에서 지워진다.
+        account.setPassword("5678");
+        this.accountService.saveAccount(account);
+        assertThat(cache.get(username)).isNull();
+        assertThat(this.passwordEncoder.matches("5678",
+                this.accountService.loadUserByUsername(username).getPassword())).isTrue();
+    }
+
+    @Test
+    public void evictCachedAccountOnEmailChangeAndDelete() {
+        //Given
+        String oldEmail = "before@email.com";
+        String newEmail = "after@email.com";
+        Account account = this.accountService.saveAccount(Account.builder()
+                .email(oldEmail)
+                .password("1234")
+                .roles(Stream.of(AccountRole.USER).collect(Collectors.toSet()))
+                .build());
+        Cache cache = this.cacheManager.getCache(CacheConfig.ACCOUNTS);
+        this.accountService.loadUserByUsername(oldEmail);
+        assertThat(cache.get(oldEmail)).isNotNull();
+
+        //When
+        account.setEmail(newEmail);
+        account.setPassword("1234");
+        this.accountService.saveAccount(account);
+
+        //Then
+        // 이전 이메일로는 로그인할 수 없다.
+        assertThat(cache.get(oldEmail)).isNull();
+        assertThatThrownBy(() -> this.accountService.loadUserByUsername(oldEmail))
+                .isInstanceOf(UsernameNotFoundException.class);
+
+        // 삭제해도 캐시에서 지워진다.
+        this.accountService.loadUserByUsername(newEmail);
+        assertThat(cache.get(newEmail)).isNotNull();
+        this.accountRepository.deleteById(account.getId());
+        assertThat(cache.get(newEmail)).isNull();
+    }
+
+    @Test
+    public void rehashPasswordOnLogin() {
+        //Given
+        // 설정(10)보다 낮은 강도로 저장된 계정
+        String username = "rehash@email.com";
+        String password = "1234";
+        this.accountRepository.save(Account.builder()
+                .email(username)
+                .password("{bcrypt}" + new BCryptPasswordEncoder(4).encode(password))
+                .roles(Stream.of(AccountRole.USER).collect(Collectors.toSet()))
+                .build());
+        assertThat(this.passwordEncoder.upgradeEncoding(this.accountRepository.findByEmail(username).get().getPassword()))
+                .isTrue();
+
+        //When
+        this.authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(username, password));
+
+        //Then
+        String rehashed = this.accountRepository.findByEmail(username).get().getPassword();
+        assertThat(rehashed).startsWith("{bcrypt}$2a$10$");
+        assertThat(this.passwordEncoder.upgradeEncoding(rehashed)).isFalse();
+        assertThat(this.passwordEncoder.matches(password, rehashed)).isTrue();
+    }
+
+    @Test
+    public void rehashLegacyPasswordOnLogin() {
+        //Given
+        // PasswordEncoderFactories 기본 id 로 저장된 계정
+        String username = "legacy@email.com";
+        String password = "1234";
+        this.accountRepository.save(Account.builder()
+                .email(username)
+                .password("{noop}" + password)
+                .roles(Stream.of(AccountRole.USER).collect(Collectors.toSet()))
+                .build());
+        assertThat(this.passwordEncoder.matches(password, "{MD5}81dc9bdb52d04dc20036dbd8313ed055")).isTrue();
+
+        //When
+        this.authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(username, password));
+
+        //Then
+        String rehashed = this.accountRepository.findByEmail(username).get().getPassword();
+        assertThat(rehashed).startsWith("{bcrypt}$2a$10$");
+        assertThat(this.passwordEncoder.matches(password, rehashed)).isTrue();
+    }
+}
@@ -1,11 +1,13 @@
 package io.jmlim.springrestapistudy.configs;
 
 import io.jmlim.springrestapistudy.accounts.Account;
+import io.jmlim.springrestapistudy.accounts.AccountRepository;
 import io.jmlim.springrestapistudy.accounts.AccountRole;
 import io.jmlim.springrestapistudy.accounts.AccountService;
 import io.jmlim.springrestapistudy.common.AppProperties;
 import io.jmlim.springrestapistudy.common.BaseControllerTest;
 import io.jmlim.springrestapistudy.common.TestDescription;
+import org.junit.Before;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
@@ -26,6 +28,23 @@ public class AuthServerConfigTest extends BaseControllerTest {
     @Autowired
     AppProperties appProperties;
 
+    @Autowired
+    AccountRepository accountRepository;
+
+    /**
+     * 다른 테스트에서 계정을 지웠을 수 있으므로 AppConfig 에서 만든 계정이 없으면 다시 만든다.
+     */
+    @Before
+    public void setUp() {
+        if (!this.accountRepository.findByEmail(appProperties.getUserUsername()).isPresent()) {
+            this.accountService.saveAccount(Account.builder()
+                    .email(appProperties.getUserUsername())
+                    .password(appProperties.getUserPassword())
+                    .roles(Stream.of(AccountRole.ADMIN, AccountRole.USER).collect(Collectors.toSet()))
+                    .build());
+        }
+    }
+
     @Test
     @TestDescription("인증 토큰을 발급 받는 테스트")
     public void getAuthToken() throws Exception {
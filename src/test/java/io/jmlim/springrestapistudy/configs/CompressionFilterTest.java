@@ -0,0 +1,185 @@
+package io.jmlim.springrestapistudy.configs;
+
+import com.jayway.jsonpath.JsonPath;
+import io.jmlim.springrestapistudy.common.AppProperties;
+import io.jmlim.springrestapistudy.common.BaseControllerTest;
+import io.jmlim.springrestapistudy.common.TestDescription;
+import io.jmlim.springrestapistudy.events.Event;
+import io.jmlim.springrestapistudy.events.EventRepository;
+import io.jmlim.springrestapistudy.events.EventStatus;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class CompressionFilterTest extends BaseControllerTest {
+
+    @Autowired
+    EventRepository eventRepository;
+
+    @Before
+    public void setUp() {
+        this.eventRepository.deleteAll();
+    }
+
+    @Test
+    @TestDescription("gzip 을 받는 클라이언트에게 큰 이벤트 목록을 gzip 으로 압축해서 응답")
+    public void queryEventsGzip() throws Exception {
+        generateEvents(50);
+
+        MockHttpServletResponse response = this.mockMvc.perform(get("/api/events").param("size", "50")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_LENGTH))
+                .andReturn().getResponse();
+
+        assertThat(response.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT_ENCODING);
+        String body = read(new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray())));
+        assertThat(response.getContentAsByteArray().length).isLessThan(body.length());
+        assertThat((Integer) JsonPath.read(body, "$.page.totalElements")).isEqualTo(50);
+    }
+
+    @Test
+    @TestDescription("deflate 만 받는 클라이언트에게는 deflate 로 압축해서 응답")
+    public void queryEventsDeflate() throws Exception {
+        generateEvents(50);
+
+        MockHttpServletResponse response = this.mockMvc.perform(get("/api/events").param("size", "50")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "deflate"))
+                .andReturn().getResponse();
+
+        String body = read(new InflaterInputStream(new ByteArrayInputStream(response.getContentAsByteArray())));
+        assertThat((Integer) JsonPath.read(body, "$.page.totalElements")).isEqualTo(50);
+    }
+
+    @Test
+    @TestDescription("압축한 응답의 ETag 에는 압축 방식을 붙이고, 그 ETag 로 보낸 If-None-Match 는 304 응답")
+    public void compressedETag() throws Exception {
+        generateEvents(50);
+
+        String etag = this.mockMvc.perform(get("/api/events").param("size", "50")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String identityETag = this.mockMvc.perform(get("/api/events").param("size", "50"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertThat(etag).isEqualTo(identityETag.substring(0, identityETag.length() - 1) + "-gzip\"");
+        this.mockMvc.perform(get("/api/events").param("size", "50")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+    }
+
+    @Test
+    @TestDescription("If-Match 의 ETag 는 압축 방식을 떼고 애플리케이션에 전달")
+    public void ifMatchDecoded() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/");
+        request.addHeader(HttpHeaders.IF_MATCH, "\"1-2-m-gzip\", W/\"1-3-deflate\"");
+        String[] ifMatch = new String[1];
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void doPut(HttpServletRequest req, HttpServletResponse resp) {
+                ifMatch[0] = req.getHeader(HttpHeaders.IF_MATCH);
+            }
+        };
+
+        new CompressionFilter(new AppProperties()).doFilter(request, new MockHttpServletResponse(), new MockFilterChain(servlet));
+
+        assertThat(ifMatch[0]).isEqualTo("\"1-2-m\", W/\"1-3\"");
+    }
+
+    @Test
+    @TestDescription("최소 크기보다 작은 응답은 압축하지 않는다")
+    public void smallResponseNotCompressed() throws Exception {
+        this.mockMvc.perform(get("/api/").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().exists(HttpHeaders.CONTENT_LENGTH));
+    }
+
+    @Test
+    @TestDescription("HttpMessageConverter 가 헤더로 쓴 Content-Length 는 압축한 응답에 보내지 않는다")
+    public void contentLengthHeaderNotSentWhenCompressed() throws Exception {
+        String json = "[" + IntStream.range(0, 500).mapToObj(i -> "\"event " + i + "\"").collect(Collectors.joining(",")) + "]";
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                new StringHttpMessageConverter(StandardCharsets.UTF_8)
+                        .write(json, MediaType.APPLICATION_JSON, new ServletServerHttpResponse(resp));
+            }
+        };
+
+        new CompressionFilter(new AppProperties()).doFilter(request, response, new MockFilterChain(servlet));
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(response.getHeader(HttpHeaders.CONTENT_LENGTH)).isNull();
+        assertThat(read(new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray())))).isEqualTo(json);
+    }
+
+    @Test
+    @TestDescription("Accept-Encoding 에 따라 압축 방식 선택")
+    public void negotiate() {
+        assertThat(CompressionFilter.negotiate(null)).isNull();
+        assertThat(CompressionFilter.negotiate("identity")).isNull();
+        assertThat(CompressionFilter.negotiate("deflate, GZIP;q=0.5")).isEqualTo("gzip");
+        assertThat(CompressionFilter.negotiate("gzip;q=0, deflate")).isEqualTo("deflate");
+        assertThat(CompressionFilter.negotiate("gzip; q=0")).isNull();
+    }
+
+    private String read(InputStream inputStream) throws Exception {
+        try (InputStream in = inputStream) {
+            return StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+        }
+    }
+
+    private void generateEvents(int count) {
+        this.eventRepository.saveAll(IntStream.range(0, count).mapToObj(i -> Event.builder()
+                .name("event " + i)
+                .description("test event")
+                .beginEnrollmentDateTime(LocalDateTime.of(2018, 11, 23, 14, 21))
+                .closeEnrollmentDateTime(LocalDateTime.of(2018, 11, 24, 14, 21))
+                .beginEventDateTime(LocalDateTime.of(2018, 11, 25, 14, 21))
+                .endEventDateTime(LocalDateTime.of(2018, 11, 26, 14, 21))
+                .basePrice(100)
+                .maxPrice(200)
+                .limitOfEnrollment(100)
+                .location("강남역 D2 스타트업 팩토리.")
+                .eventStatus(EventStatus.DRAFT)
+                .build()).collect(Collectors.toList()));
+    }
+}
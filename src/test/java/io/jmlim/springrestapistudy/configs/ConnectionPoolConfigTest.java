@@ -0,0 +1,58 @@
+package io.jmlim.springrestapistudy.configs;
+
+import com.zaxxer.hikari.HikariConfig;
+import io.jmlim.springrestapistudy.common.AppProperties;
+import io.jmlim.springrestapistudy.common.TestDescription;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConnectionPoolConfigTest {
+
+    @Test
+    @TestDescription("MariaDB 이면 풀 설정과 드라이버 설정을, 다른 DB 면 풀 설정만 적용")
+    public void apply() {
+        AppProperties.Pool pool = new AppProperties().getPool();
+
+        HikariConfig mariaDb = new HikariConfig();
+        mariaDb.setJdbcUrl("jdbc:mariadb://localhost:3306/test");
+        ConnectionPoolConfig.apply(pool, mariaDb);
+
+        assertThat(mariaDb.getMaximumPoolSize()).isEqualTo(10);
+        assertThat(mariaDb.getMinimumIdle()).isEqualTo(10);
+        assertThat(mariaDb.getConnectionTimeout()).isEqualTo(3000);
+        assertThat(mariaDb.getDataSourceProperties())
+                .containsEntry("useServerPrepStmts", true)
+                .containsEntry("cachePrepStmts", true)
+                .containsEntry("prepStmtCacheSize", 250)
+                .containsEntry("rewriteBatchedStatements", false)
+                .containsEntry("socketTimeout", 30000);
+
+        HikariConfig h2 = new HikariConfig();
+        h2.setJdbcUrl("jdbc:h2:mem:testdb");
+        ConnectionPoolConfig.apply(pool, h2);
+
+        assertThat(h2.getMaximumPoolSize()).isEqualTo(10);
+        assertThat(h2.getDataSourceProperties()).isEmpty();
+    }
+
+    @Test
+    @TestDescription("기본 설정은 경고가 없고, 위험하거나 효과 없는 조합은 경고")
+    public void warnings() {
+        AppProperties properties = new AppProperties();
+        assertThat(ConnectionPoolConfig.warnings(properties)).isEmpty();
+
+        properties.getAsyncQuery().setThreads(20);
+        properties.getPool().setRewriteBatchedStatements(true);
+        properties.getPool().setMaxLifetimeMillis(10000);
+        properties.getPool().setLeakDetectionThresholdMillis(1000);
+        properties.getPool().setSocketTimeoutMillis(0);
+
+        assertThat(ConnectionPoolConfig.warnings(properties)).hasSize(5)
+                .anySatisfy(warning -> assertThat(warning).startsWith("async-query.threads (20)"))
+                .anySatisfy(warning -> assertThat(warning).startsWith("rewrite-batched-statements"))
+                .anySatisfy(warning -> assertThat(warning).startsWith("max-lifetime-millis"))
+                .anySatisfy(warning -> assertThat(warning).startsWith("leak-detection-threshold-millis"))
+                .anySatisfy(warning -> assertThat(warning).startsWith("socket-timeout-millis"));
+    }
+}
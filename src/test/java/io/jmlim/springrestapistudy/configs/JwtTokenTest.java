@@ -0,0 +1,106 @@
+package io.jmlim.springrestapistudy.configs;
+
+import io.jmlim.springrestapistudy.accounts.Account;
+import io.jmlim.springrestapistudy.accounts.AccountAdapter;
+import io.jmlim.springrestapistudy.accounts.AccountRepository;
+import io.jmlim.springrestapistudy.accounts.AccountRole;
+import io.jmlim.springrestapistudy.common.AppProperties;
+import io.jmlim.springrestapistudy.common.BaseControllerTest;
+import io.jmlim.springrestapistudy.common.TestDescription;
+import io.jmlim.springrestapistudy.events.EventDto;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.common.util.Jackson2JsonParser;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// 다른 테스트와 DB 를 공유하지 않도록 별도 메모리 DB 사용.
+@TestPropertySource(properties = {
+        "my-app.token.mode=jwt",
+        "spring.datasource.url=jdbc:h2:mem:jwt",
+        "spring.datasource.hikari.jdbc-url=jdbc:h2:mem:jwt"
+})
+public class JwtTokenTest extends BaseControllerTest {
+
+    @Autowired
+    AppProperties appProperties;
+
+    @Autowired
+    AccountRepository accountRepository;
+
+    @Autowired
+    TokenStore tokenStore;
+
+    @Test
+    @TestDescription("JWT 토큰의 클레임으로 계정 정보를 만드는 테스트")
+    public void readAuthenticationFromClaims() throws Exception {
+        // Given
+        Account account = this.accountRepository.findByEmail(appProperties.getUserUsername()).get();
+
+        // When
+        String accessToken = getAccessToken();
+        Authentication authentication = this.tokenStore.readAuthentication(accessToken);
+
+        // Then
+        assertThat(this.tokenStore).isInstanceOf(JwtTokenStore.class);
+        assertThat(accessToken.split("\\.")).hasSize(3);
+        assertThat(authentication.getPrincipal()).isInstanceOf(AccountAdapter.class);
+        Account principal = ((AccountAdapter) authentication.getPrincipal()).getAccount();
+        assertThat(principal.getId()).isEqualTo(account.getId());
+        assertThat(principal.getEmail()).isEqualTo(account.getEmail());
+        assertThat(principal.getRoles()).containsExactlyInAnyOrder(AccountRole.ADMIN, AccountRole.USER);
+    }
+
+    @Test
+    @TestDescription("JWT 토큰으로 이벤트를 생성하면 토큰의 계정이 매니저가 되는 테스트")
+    public void createEventWithJwt() throws Exception {
+        Account account = this.accountRepository.findByEmail(appProperties.getUserUsername()).get();
+        EventDto eventDto = EventDto.builder()
+                .name("Spring")
+                .description("REST API Development with Spring")
+                .beginEnrollmentDateTime(LocalDateTime.of(2018, 11, 23, 14, 21))
+                .closeEnrollmentDateTime(LocalDateTime.of(2018, 11, 24, 14, 21))
+                .beginEventDateTime(LocalDateTime.of(2018, 11, 25, 14, 21))
+                .endEventDateTime(LocalDateTime.of(2018, 11, 26, 14, 21))
+                .basePrice(100)
+                .maxPrice(200)
+                .limitOfEnrollment(100)
+                .location("강남역 D2 스타트업 팩토리.")
+                .build();
+
+        mockMvc.perform(post("/api/events/")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + getAccessToken())
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaTypes.HAL_JSON)
+                .content(objectMapper.writeValueAsString(eventDto)))
+                .andDo(print())
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("manager.id").value(account.getId()))
+                .andExpect(jsonPath("_links.update-event").exists());
+    }
+
+    private String getAccessToken() throws Exception {
+        String responseBody = this.mockMvc.perform(post("/oauth/token")
+                .with(httpBasic(appProperties.getClientId(), appProperties.getClientSecret()))
+                .param("username", appProperties.getUserUsername())
+                .param("password", appProperties.getUserPassword())
+                .param("grant_type", "password"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return new Jackson2JsonParser().parseMap(responseBody).get("access_token").toString();
+    }
+}
@@ -0,0 +1,89 @@
+package io.jmlim.springrestapistudy.configs;
+
+import io.jmlim.springrestapistudy.accounts.Account;
+import io.jmlim.springrestapistudy.accounts.AccountRepository;
+import io.jmlim.springrestapistudy.accounts.AccountRole;
+import io.jmlim.springrestapistudy.accounts.AccountService;
+import io.jmlim.springrestapistudy.common.AppProperties;
+import io.jmlim.springrestapistudy.common.BaseControllerTest;
+import io.jmlim.springrestapistudy.common.TestDescription;
+import io.jmlim.springrestapistudy.events.EventDto;
+import io.jmlim.springrestapistudy.events.EventMapper;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.oauth2.common.util.Jackson2JsonParser;
+
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class MetricsConfigTest extends BaseControllerTest {
+
+    @Autowired
+    EventMapper eventMapper;
+
+    @Autowired
+    AppProperties appProperties;
+
+    @Autowired
+    AccountRepository accountRepository;
+
+    @Autowired
+    AccountService accountService;
+
+    @Test
+    @TestDescription("토큰으로 인증하고 Prometheus 형식으로 엔드포인트, 리포지토리, 매핑, 해싱, 커넥션 풀 지표 수집")
+    public void prometheus() throws Exception {
+        String accessToken = getAccessToken();
+        this.mockMvc.perform(get("/api/events"))
+                .andExpect(status().isOk());
+        this.eventMapper.toEvent(new EventDto());
+
+        String body = this.mockMvc.perform(get("/actuator/prometheus")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(body).containsPattern("http_server_requests_seconds_bucket\\{.*uri=\"/api/events\"");
+        assertThat(body).containsPattern("spring_data_repository_invocations_seconds_count\\{.*method=\"findAll\".*repository=\"EventRepository\"");
+        assertThat(body).containsPattern("event_mapping_seconds_count\\{.*method=\"toEvent\"");
+        assertThat(body).containsPattern("password_hashing_seconds_count\\{.*operation=\"encode\"");
+        assertThat(body).contains("executor_queued_tasks{application=\"spring-rest-api-study\",name=\"password-hashing\",}");
+        assertThat(body).contains("hikaricp_connections_active");
+    }
+
+    @Test
+    @TestDescription("상태 확인 외의 액추에이터 엔드포인트는 인증 필요")
+    public void metricsRequiresAuthentication() throws Exception {
+        this.mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+        this.mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isUnauthorized());
+        this.mockMvc.perform(get("/actuator/metrics"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private String getAccessToken() throws Exception {
+        if (!this.accountRepository.findByEmail(appProperties.getUserUsername()).isPresent()) {
+            this.accountService.saveAccount(Account.builder()
+                    .email(appProperties.getUserUsername())
+                    .password(appProperties.getUserPassword())
+                    .roles(Stream.of(AccountRole.ADMIN, AccountRole.USER).collect(Collectors.toSet()))
+                    .build());
+        }
+        String responseBody = this.mockMvc.perform(post("/oauth/token")
+                .with(httpBasic(appProperties.getClientId(), appProperties.getClientSecret()))
+                .param("username", appProperties.getUserUsername())
+                .param("password", appProperties.getUserPassword())
+                .param("grant_type", "password"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return new Jackson2JsonParser().parseMap(responseBody).get("access_token").toString();
+    }
+}
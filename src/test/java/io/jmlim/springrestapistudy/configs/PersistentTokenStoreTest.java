@@ -0,0 +1,100 @@
+package io.jmlim.springrestapistudy.configs;
+
+import io.jmlim.springrestapistudy.common.AppProperties;
+import io.jmlim.springrestapistudy.common.TestDescription;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.Date;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+public class PersistentTokenStoreTest {
+
+    @Autowired
+    DataSource dataSource;
+
+    PersistentTokenStore tokenStore;
+
+    JdbcTemplate jdbcTemplate;
+
+    @Before
+    public void setUp() {
+        AppProperties.TokenStore properties = new AppProperties.TokenStore();
+        properties.setSweepBatchSize(1);
+        this.tokenStore = new PersistentTokenStore(dataSource, properties);
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.update("delete from oauth_access_token");
+    }
+
+    @Test
+    @TestDescription("만료된 토큰만 배치로 나눠서 삭제하는 테스트")
+    public void sweepExpired() {
+        // Given
+        Date past = new Date(System.currentTimeMillis() - 60_000);
+        Date future = new Date(System.currentTimeMillis() + 60_000);
+        storeToken("expired1", past);
+        storeToken("expired2", past);
+        storeToken("valid", future);
+
+        // When
+        int deleted = this.tokenStore.sweepExpired();
+
+        // Then
+        assertThat(deleted).isEqualTo(2);
+        assertThat(this.jdbcTemplate.queryForObject("select count(*) from oauth_access_token", Integer.class))
+                .isEqualTo(1);
+        assertThat(this.tokenStore.readAccessToken(tokenValue("valid"))).isNotNull();
+    }
+
+    @Test
+    @TestDescription("토큰을 삭제하면 캐시에서도 제거되는 테스트")
+    public void removeAccessTokenInvalidatesNearCache() {
+        // Given
+        storeToken("user", new Date(System.currentTimeMillis() + 60_000));
+        String value = tokenValue("user");
+        assertThat(this.tokenStore.readAccessToken(value)).isNotNull();
+        assertThat(this.tokenStore.readAuthentication(value)).isNotNull();
+
+        // When
+        this.tokenStore.removeAccessToken(value);
+
+        // Then
+        assertThat(this.tokenStore.readAccessToken(value)).isNull();
+        assertThat(this.tokenStore.readAuthentication(value)).isNull();
+    }
+
+    private void storeToken(String username, Date expiration) {
+        DefaultOAuth2AccessToken token = new DefaultOAuth2AccessToken(tokenValue(username));
+        token.setExpiration(expiration);
+        this.tokenStore.storeAccessToken(token, authentication(username));
+    }
+
+    private String tokenValue(String username) {
+        return UUID.nameUUIDFromBytes(username.getBytes()).toString();
+    }
+
+    private OAuth2Authentication authentication(String username) {
+        OAuth2Request request = new OAuth2Request(Collections.emptyMap(), "myApp", null, true,
+                Collections.singleton("read"), null, null, null, null);
+        return new OAuth2Authentication(request,
+                new UsernamePasswordAuthenticationToken(username, null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+    }
+}
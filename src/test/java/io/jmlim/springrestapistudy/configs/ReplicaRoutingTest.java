@@ -0,0 +1,176 @@
+package io.jmlim.springrestapistudy.configs;
+
+import io.jmlim.springrestapistudy.common.BaseControllerTest;
+import io.jmlim.springrestapistudy.common.TestDescription;
+import io.jmlim.springrestapistudy.events.Event;
+import io.jmlim.springrestapistudy.events.EventRepository;
+import io.jmlim.springrestapistudy.events.EventStatus;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * primary(testdb)와 replica 로 H2 메모리 DB 두 개를 사용한다. 복제는 하지 않으므로 replica 에는 테스트가 직접 넣는다.
+ */
+@TestPropertySource(properties = {
+        "my-app.replica.url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1",
+        "my-app.replica.username=sa",
+        "my-app.replica.password=",
+        "my-app.replica.lag-query=select lag_seconds from replica_status",
+        "my-app.replica.lag-column=lag_seconds",
+        // 테스트에서 직접 확인한다.
+        "my-app.replica.lag-check-interval-millis=3600000"
+})
+public class ReplicaRoutingTest extends BaseControllerTest {
+
+    @Autowired
+    EventRepository eventRepository;
+
+    @Autowired
+    ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    private DataSource replica;
+
+    private JdbcTemplate primaryJdbc;
+
+    private JdbcTemplate replicaJdbc;
+
+    @Before
+    public void setUp() {
+        this.eventRepository.deleteAll();
+        ReplicaRoutingDataSource routing = DataSourceUnwrapper.unwrap(this.dataSource, ReplicaRoutingDataSource.class);
+        this.replica = routing.getReplica();
+        this.primaryJdbc = new JdbcTemplate(routing.getPrimary());
+        this.replicaJdbc = new JdbcTemplate(this.replica);
+
+        // primary 와 같은 스키마로 replica 를 다시 만든다.
+        this.replicaJdbc.execute("drop all objects");
+        this.primaryJdbc.queryForList("script nodata", String.class).stream()
+                .filter(sql -> sql.startsWith("CREATE") || sql.startsWith("ALTER"))
+                .filter(sql -> !sql.startsWith("CREATE USER"))
+                .forEach(this.replicaJdbc::execute);
+        this.replicaJdbc.execute("create table replica_status (lag_seconds int)");
+        this.replicaJdbc.update("insert into replica_status values (0)");
+        this.replicaLagMonitor.check();
+    }
+
+    @Test
+    @TestDescription("조회는 replica 에서 읽고, 캐시하는 단건 조회는 primary 에서 읽는다")
+    public void readFromReplica() throws Exception {
+        Event event = this.generateReplicatedEvent();
+
+        this.mockMvc.perform(get("/api/events"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("_embedded.eventList[0].name").value("event in replica"));
+        assertThat(this.eventRepository.findById(event.getId())).get()
+                .extracting(Event::getName).isEqualTo("event in replica");
+        this.mockMvc.perform(get("/api/events/{id}", event.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("name").value("event in primary"));
+    }
+
+    @Test
+    @TestDescription("replica 복제 지연이 크면 primary 에서 읽는다")
+    public void readFromPrimaryWhenReplicaLags() throws Exception {
+        this.generateReplicatedEvent();
+        this.replicaJdbc.update("update replica_status set lag_seconds = 60");
+        this.replicaLagMonitor.check();
+
+        assertThat(this.replicaLagMonitor.isAvailable()).isFalse();
+        this.mockMvc.perform(get("/api/events"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("_embedded.eventList[0].name").value("event in primary"));
+    }
+
+    @Test
+    @TestDescription("replica 복제 상태를 확인할 수 없으면 primary 에서 읽는다")
+    public void readFromPrimaryWhenReplicaIsDown() {
+        Event event = this.generateReplicatedEvent();
+        this.replicaJdbc.execute("drop table replica_status");
+        this.replicaLagMonitor.check();
+
+        assertThat(this.replicaLagMonitor.isAvailable()).isFalse();
+        assertThat(this.eventRepository.findById(event.getId())).get()
+                .extracting(Event::getName).isEqualTo("event in primary");
+    }
+
+    @Test
+    @TestDescription("쓰기와 수정할 이벤트 조회는 primary 를 사용한다")
+    public void writeToPrimary() {
+        Event event = this.eventRepository.save(buildEvent());
+
+        assertThat(this.primaryJdbc.queryForObject("select count(*) from event where id = ?", Integer.class, event.getId()))
+                .isEqualTo(1);
+        assertThat(this.eventRepository.findById(event.getId())).isEmpty();
+        assertThat(this.eventRepository.findWritableById(event.getId())).isPresent();
+    }
+
+    @Test
+    @TestDescription("한 요청(OSIV)에서 조회한 뒤 저장해도 저장은 primary 를 사용한다")
+    public void writeToPrimaryAfterReadInSameEntityManager() {
+        Event event = this.generateReplicatedEvent();
+        // OpenEntityManagerInViewInterceptor 처럼 요청 동안 EntityManager 를 열어 둔다.
+        EntityManager entityManager = this.entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(this.entityManagerFactory, new EntityManagerHolder(entityManager));
+        try {
+            assertThat(this.eventRepository.findById(event.getId())).get()
+                    .extracting(Event::getName).isEqualTo("event in replica");
+            Event saved = this.eventRepository.save(buildEvent());
+
+            assertThat(this.primaryJdbc.queryForObject("select count(*) from event where id = ?", Integer.class,
+                    saved.getId())).isEqualTo(1);
+            assertThat(this.replicaJdbc.queryForObject("select count(*) from event where id = ?", Integer.class,
+                    saved.getId())).isEqualTo(0);
+        } finally {
+            TransactionSynchronizationManager.unbindResource(this.entityManagerFactory);
+            entityManager.close();
+        }
+    }
+
+    private Event generateReplicatedEvent() {
+        Event event = this.eventRepository.save(buildEvent());
+        Map<String, Object> row = this.primaryJdbc.queryForMap("select * from event where id = ?", event.getId());
+        row.put("NAME", "event in replica");
+        new SimpleJdbcInsert(this.replica).withTableName("EVENT").execute(row);
+        return event;
+    }
+
+    private Event buildEvent() {
+        return Event.builder()
+                .name("event in primary")
+                .description("test event")
+                .beginEnrollmentDateTime(LocalDateTime.of(2018, 11, 23, 14, 21))
+                .closeEnrollmentDateTime(LocalDateTime.of(2018, 11, 24, 14, 21))
+                .beginEventDateTime(LocalDateTime.of(2018, 11, 25, 14, 21))
+                .endEventDateTime(LocalDateTime.of(2018, 11, 26, 14, 21))
+                .basePrice(100)
+                .maxPrice(200)
+                .limitOfEnrollment(100)
+                .location("강남역 D2 스타트업 팩토리.")
+                .eventStatus(EventStatus.DRAFT)
+                .build();
+    }
+}
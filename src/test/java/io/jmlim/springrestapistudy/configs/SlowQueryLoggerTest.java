@@ -0,0 +1,53 @@
+package io.jmlim.springrestapistudy.configs;
+
+import io.jmlim.springrestapistudy.common.AppProperties;
+import io.jmlim.springrestapistudy.common.TestDescription;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.junit.Rule;
+import org.junit.Test;
+import org.springframework.boot.test.rule.OutputCapture;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SlowQueryLoggerTest {
+
+    @Rule
+    public OutputCapture output = new OutputCapture();
+
+    @Test
+    @TestDescription("기준 시간 이상 걸린 SQL 만 실행 시간, 파라미터와 함께 로그로 남긴다")
+    public void logSlowQueryOnly() {
+        AppProperties.SlowQuery properties = new AppProperties.SlowQuery();
+        properties.setThresholdMillis(200);
+        properties.setLogParameters(true);
+        SlowQueryLogger logger = new SlowQueryLogger(properties);
+
+        logger.afterQuery(execution(199), Collections.singletonList(query("select fast from event where id=?", 1)));
+        logger.afterQuery(execution(350), Collections.singletonList(query("select slow from event where id=?", 2)));
+
+        assertThat(this.output.toString())
+                .doesNotContain("select fast")
+                .contains("Slow query 350ms")
+                .contains("select slow from event where id=?")
+                .contains("[2]");
+    }
+
+    private ExecutionInfo execution(long elapsedTime) {
+        ExecutionInfo execInfo = new ExecutionInfo();
+        execInfo.setElapsedTime(elapsedTime);
+        execInfo.setSuccess(true);
+        return execInfo;
+    }
+
+    private QueryInfo query(String sql, Object id) {
+        QueryInfo queryInfo = new QueryInfo(sql);
+        queryInfo.setParametersList(Collections.singletonList(
+                Arrays.asList(new ParameterSetOperation(null, new Object[]{1, id}))));
+        return queryInfo;
+    }
+}
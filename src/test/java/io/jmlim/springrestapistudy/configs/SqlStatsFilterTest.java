@@ -0,0 +1,88 @@
+package io.jmlim.springrestapistudy.configs;
+
+import io.jmlim.springrestapistudy.common.AppProperties;
+import io.jmlim.springrestapistudy.common.BaseControllerTest;
+import io.jmlim.springrestapistudy.common.SqlBudget;
+import io.jmlim.springrestapistudy.common.TestDescription;
+import io.jmlim.springrestapistudy.events.EventController;
+import io.jmlim.springrestapistudy.events.EventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.servlet.http.HttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class SqlStatsFilterTest extends BaseControllerTest {
+
+    @Autowired
+    EventRepository eventRepository;
+
+    @Autowired
+    AppProperties appProperties;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Before
+    public void setUp() {
+        this.eventRepository.deleteAll();
+    }
+
+    @Test
+    @TestDescription("요청별 SQL 개수를 헤더와 지표로 남긴다")
+    public void queryEventsSqlStats() throws Exception {
+        // 첫 페이지가 다 차지 않으면 count 쿼리 없이 목록 조회 한 번
+        this.mockMvc.perform(get("/api/events"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(SqlStatsResponseAdvice.SQL_COUNT, "1"))
+                .andExpect(header().exists(SqlStatsResponseAdvice.SQL_TIME));
+
+        assertThat(this.meterRegistry.find("http.server.requests.sql.statements")
+                .tags("method", "GET", "uri", "/api/events").summary().count()).isGreaterThan(0);
+    }
+
+    @Test
+    @TestDescription("비동기 조회는 작업 스레드에서 실행한 SQL 도 같은 요청으로 센다")
+    public void queryEventsAsyncSqlStats() throws Exception {
+        MvcResult result = this.mockMvc.perform(get("/api/events").header(EventController.ASYNC_HEADER, "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        this.mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(SqlStatsResponseAdvice.SQL_COUNT, "1"));
+    }
+
+    @Test
+    @TestDescription("@SqlBudget 보다 SQL 을 많이 실행하면 예외 (테스트 설정)")
+    public void budgetExceeded() throws Exception {
+        SqlStatsFilter filter = new SqlStatsFilter(this.appProperties, this.meterRegistry);
+        SqlBudget budget = getClass().getDeclaredMethod("oneStatement").getAnnotation(SqlBudget.class);
+
+        assertThatThrownBy(() -> filter.doFilter(new MockHttpServletRequest("GET", "/api/events"),
+                new MockHttpServletResponse(), (request, response) -> {
+                    RequestSqlStats stats = RequestSqlStats.get((HttpServletRequest) request);
+                    stats.setBudget(budget);
+                    stats.add(1);
+                    stats.add(1);
+                }))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("executed 2 statements");
+    }
+
+    @SqlBudget(statements = 1)
+    private void oneStatement() {
+    }
+}
@@ -7,21 +7,35 @@ import io.jmlim.springrestapistudy.accounts.AccountService;
 import io.jmlim.springrestapistudy.common.AppProperties;
 import io.jmlim.springrestapistudy.common.BaseControllerTest;
 import io.jmlim.springrestapistudy.common.TestDescription;
+import io.jmlim.springrestapistudy.configs.CacheConfig;
+import io.jmlim.springrestapistudy.configs.SqlStatsResponseAdvice;
+import io.micrometer.core.instrument.MeterRegistry;
+import com.jayway.jsonpath.JsonPath;
 import org.hamcrest.Matchers;
+import org.hibernate.SessionFactory;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.stat.Statistics;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.hateoas.MediaTypes;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.oauth2.common.util.Jackson2JsonParser;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
+import javax.persistence.EntityManagerFactory;
+import java.net.URI;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.restdocs.headers.HeaderDocumentation.*;
 import static org.springframework.restdocs.hypermedia.HypermediaDocumentation.linkWithRel;
 import static org.springframework.restdocs.hypermedia.HypermediaDocumentation.links;
@@ -46,6 +60,18 @@ public class EventControllerTest extends BaseControllerTest {
     @Autowired
     AppProperties appProperties;
 
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    EventIndex eventIndex;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
     /**
      * 테스트 디비가 인메모리 디비긴하나.. 테스트간에는 서로 디비를 공유하기 때문에
      * 데이터가 공유가 되버리니.. 처리
@@ -369,6 +395,48 @@ public class EventControllerTest extends BaseControllerTest {
         ;
     }
 
+    @Test
+    @TestDescription("조건에 맞는 이벤트만 조회하기")
+    public void queryEventsWithSearch() throws Exception {
+        // Given
+        IntStream.range(0, 30).forEach(i -> {
+            Event event = this.buildEvent(i);
+            event.setBasePrice(i * 100);
+            event.setEventStatus(i % 3 == 0 ? EventStatus.PUBLISHED : EventStatus.DRAFT);
+            this.eventRepository.save(event);
+        });
+
+        // When & Then
+        // 0, 3, 6, ..., 27 중 basePrice 1000 ~ 2000 => 12, 15, 18
+        this.mockMvc.perform(get("/api/events")
+                .param("eventStatus", "PUBLISHED")
+                .param("priceFrom", "1000")
+                .param("priceTo", "2000")
+                .param("beginEventFrom", "2018-11-25T00:00:00")
+                .param("sort", "basePrice,ASC"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("page.totalElements").value(3))
+                .andExpect(jsonPath("_embedded.eventList[*].name", Matchers.contains("event 12", "event 15", "event 18")))
+                .andDo(document("query-events-search"));
+
+        // 커서, count=none 에도 같은 조건 적용
+        this.mockMvc.perform(get("/api/events")
+                .param("eventStatus", "PUBLISHED")
+                .param("priceFrom", "1000")
+                .param("after", "")
+                .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("_embedded.eventList.length()").value(5))
+                .andExpect(jsonPath("_links.next").exists());
+        this.mockMvc.perform(get("/api/events")
+                .param("eventStatus", "PUBLISHED")
+                .param("offline", "false")
+                .param("count", "none"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("_embedded").doesNotExist());
+    }
+
     @Test
     @TestDescription("30개의 이벤트를 10개씩 두번째 페이지 조회하기.(인증정보 있음)")
     public void queryEventsWithAuthentication() throws Exception {
@@ -400,6 +468,215 @@ public class EventControllerTest extends BaseControllerTest {
         ;
     }
 
+    @Test
+    @TestDescription("전체 개수 없이 30개의 이벤트를 10개씩 두번째 페이지 조회하기")
+    public void queryEventsWithoutCount() throws Exception {
+        // Given
+        IntStream.range(0, 30).forEach(this::generateEvent);
+
+        // When & Then
+        this.mockMvc.perform(get("/api/events")
+                .param("page", "1")
+                .param("size", "10")
+                .param("sort", "name,DESC")
+                .param("count", "none")
+        )
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("page").doesNotExist())
+                .andExpect(jsonPath("_embedded.eventList.length()").value(10))
+                .andExpect(jsonPath("_links.next").exists())
+                .andExpect(jsonPath("_links.prev").exists())
+                .andExpect(jsonPath("_links.profile").exists());
+    }
+
+    @Test
+    @TestDescription("근사 전체 개수로 30개의 이벤트를 10개씩 두번째 페이지 조회하기")
+    public void queryEventsWithEstimatedCount() throws Exception {
+        // Given
+        IntStream.range(0, 30).forEach(this::generateEvent);
+
+        // When & Then
+        this.mockMvc.perform(get("/api/events")
+                .param("page", "1")
+                .param("size", "10")
+                .param("count", "estimate")
+        )
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("page.number").value(1))
+                .andExpect(jsonPath("page.totalElements").exists())
+                .andExpect(jsonPath("_embedded.eventList.length()").value(10))
+                .andExpect(jsonPath("_links.next").exists());
+    }
+
+    @Test
+    @TestDescription("30개의 이벤트를 커서 기반으로 10개씩 두번째 페이지 조회하기")
+    public void queryEventsWithCursor() throws Exception {
+        // Given
+        IntStream.range(0, 30).forEach(this::generateEvent);
+
+        // When & Then (첫 페이지는 빈 after 로 요청)
+        String firstPage = this.mockMvc.perform(get("/api/events")
+                .param("after", "")
+                .param("size", "10")
+                .param("sort", "id,DESC")
+        )
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("page").doesNotExist())
+                .andExpect(jsonPath("_embedded.eventList.length()").value(10))
+                .andExpect(jsonPath("_embedded.eventList[0]._links.self").exists())
+                .andExpect(jsonPath("_links.self").exists())
+                .andExpect(jsonPath("_links.next").exists())
+                .andExpect(jsonPath("_links.prev").doesNotExist())
+                .andExpect(jsonPath("_links.profile").exists())
+                .andReturn().getResponse().getContentAsString();
+
+        // 페이지 번호 방식의 두번째 페이지와 결과가 같아야 한다.
+        String secondPageByNumber = this.mockMvc.perform(get("/api/events")
+                .param("page", "1")
+                .param("size", "10")
+                .param("sort", "id,DESC"))
+                .andReturn().getResponse().getContentAsString();
+        List<Object> expectedIds = JsonPath.read(secondPageByNumber, "_embedded.eventList[*].id");
+
+        // MockMvc 는 param() 으로 넣은 값이 쿼리스트링에 없으므로 링크에 정렬 조건이 빠져있어 다시 넣어준다.
+        String next = JsonPath.read(firstPage, "_links.next.href");
+        this.mockMvc.perform(get(URI.create(next))
+                .param("size", "10")
+                .param("sort", "id,DESC"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("_embedded.eventList[*].id").value(expectedIds))
+                .andExpect(jsonPath("_links.next").exists())
+                .andExpect(jsonPath("_links.prev").exists())
+                .andDo(document("query-events-cursor"));
+    }
+
+    @Test
+    @TestDescription("커서 조회에서 null 이 들어갈 수 있는 필드나 여러 필드로 정렬하면 400 응답받기")
+    public void queryEventsWithWrongCursorSort() throws Exception {
+        this.mockMvc.perform(get("/api/events")
+                .param("after", "")
+                .param("sort", "name,DESC"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("content[0].code").value("wrongCursor"));
+        this.mockMvc.perform(get("/api/events")
+                .param("after", "")
+                .param("sort", "basePrice,DESC")
+                .param("sort", "id,ASC"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("content[0].code").value("wrongCursor"));
+    }
+
+    @Test
+    @TestDescription("잘못된 커서로 조회했을 때 400 응답받기")
+    public void queryEventsWithWrongCursor() throws Exception {
+        this.mockMvc.perform(get("/api/events")
+                .param("after", "wrong-cursor")
+                .param("sort", "id,DESC"))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("_links.index").exists());
+    }
+
+    @Test
+    @TestDescription("이벤트 목록 조회 시 페이지 크기와 상관없이 쿼리 개수가 같아야 한다 (N+1 없음)")
+    public void queryEventsStatementCount() throws Exception {
+        // Given (매니저가 모두 다른 이벤트 20개)
+        IntStream.range(0, 20).forEach(i -> {
+            Account manager = this.accountRepository.save(Account.builder()
+                    .email("manager" + i + "@email.com")
+                    .password("pass")
+                    .roles(Stream.of(AccountRole.USER).collect(Collectors.toSet()))
+                    .build());
+            this.generateEvent(i, manager);
+        });
+
+        // When
+        long smallPage = countStatements(get("/api/events").param("size", "5"));
+        long largePage = countStatements(get("/api/events").param("size", "20"));
+
+        // Then (목록 조회 + count 조회)
+        assertThat(smallPage).isEqualTo(2);
+        assertThat(largePage).isEqualTo(smallPage);
+    }
+
+    @Test
+    @TestDescription("매니저가 있는 이벤트 하나를 조회할 때 매니저를 조회하지 않는다")
+    public void getEventStatementCount() throws Exception {
+        //Given
+        Account account = this.createAccount();
+        Event event = this.generateEvent(100, account);
+
+        //When & Then
+        assertThat(countStatements(get("/api/events/{id}", event.getId()))).isEqualTo(1);
+    }
+
+    @Test
+    @TestDescription("이벤트를 두번 조회하면 두번째는 캐시에서 가져오고, 수정하면 캐시가 지워진다")
+    public void getEventCached() throws Exception {
+        //Given
+        Account account = this.createAccount();
+        Event event = this.generateEvent(100, account);
+        assertThat(countStatements(get("/api/events/{id}", event.getId()))).isEqualTo(1);
+
+        //When & Then
+        assertThat(countStatements(get("/api/events/{id}", event.getId()))).isEqualTo(0);
+
+        EventDto eventDto = this.modelMapper.map(event, EventDto.class);
+        eventDto.setName("수정한 이벤트");
+        this.mockMvc.perform(put("/api/events/{id}", event.getId())
+                .header(HttpHeaders.AUTHORIZATION, this.getBearerToken(false))
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content(objectMapper.writeValueAsString(eventDto)))
+                .andExpect(status().isOk());
+
+        this.mockMvc.perform(get("/api/events/{id}", event.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("name").value("수정한 이벤트"));
+        assertThat(this.meterRegistry.find("cache.gets").tags("cache", CacheConfig.EVENTS, "result", "hit")
+                .functionCounter().count()).isGreaterThan(0);
+    }
+
+    @Test
+    @TestDescription("캐시에는 엔티티가 아닌 스냅샷을 두고 요청마다 매니저 id 만 가진 새 이벤트로 꺼낸다")
+    public void getEventCachesSnapshot() {
+        //Given
+        Account account = this.createAccount();
+        Event event = this.generateEvent(100, account);
+        Event withoutManager = this.generateEvent(101);
+
+        //When
+        EventSnapshot snapshot = this.eventRepository.findCachedById(event.getId()).get();
+
+        //Then
+        assertThat(this.eventRepository.findCachedById(event.getId()).get()).isSameAs(snapshot);
+        assertThat(snapshot.getManagerId()).isEqualTo(account.getId());
+        assertThat(snapshot.getVersion()).isEqualTo(event.getVersion());
+        Event first = snapshot.toEvent();
+        Event second = snapshot.toEvent();
+        assertThat(first).isNotSameAs(second);
+        assertThat(first.getManager()).isNotInstanceOf(HibernateProxy.class);
+        assertThat(first.isManagedBy(account)).isTrue();
+        first.setName("다른 요청에서 변경");
+        assertThat(second.getName()).isEqualTo("event 100");
+        assertThat(snapshot.toEvent().getName()).isEqualTo("event 100");
+
+        EventSnapshot snapshotWithoutManager = this.eventRepository.findCachedById(withoutManager.getId()).get();
+        assertThat(snapshotWithoutManager.getManagerId()).isNull();
+        assertThat(snapshotWithoutManager.toEvent().getManager()).isNull();
+    }
+
+    private long countStatements(MockHttpServletRequestBuilder request) throws Exception {
+        String count = this.mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$..manager.id").exists())
+                .andReturn().getResponse().getHeader(SqlStatsResponseAdvice.SQL_COUNT);
+        return Long.parseLong(count);
+    }
+
     @Test
     @TestDescription("기존의 이벤트를 하나 조회하기")
     public void getEvent() throws Exception {
@@ -410,6 +687,7 @@ public class EventControllerTest extends BaseControllerTest {
         //When & then
         this.mockMvc.perform(get("/api/events/{id}", event.getId()))
                 .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
                 .andExpect(jsonPath("name").exists())
                 .andExpect(jsonPath("id").exists())
                 .andExpect(jsonPath("_links.self").exists())
@@ -419,6 +697,43 @@ public class EventControllerTest extends BaseControllerTest {
         ;
     }
 
+    @Test
+    @TestDescription("ETag 가 같으면 이벤트 조회 시 304 응답받기")
+    public void getEventNotModified() throws Exception {
+        //Given
+        Event event = this.generateEvent(100);
+        String eTag = this.mockMvc.perform(get("/api/events/{id}", event.getId()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        //When & then
+        this.mockMvc.perform(get("/api/events/{id}", event.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @TestDescription("ETag 가 같으면 이벤트 목록 조회 시 304 응답받고, 이벤트가 바뀌면 200 응답받기")
+    public void queryEventsNotModified() throws Exception {
+        //Given
+        IntStream.range(0, 10).forEach(this::generateEvent);
+        String eTag = this.mockMvc.perform(get("/api/events").param("size", "5"))
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        //When & then
+        this.mockMvc.perform(get("/api/events").param("size", "5")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        this.generateEvent(10);
+        this.mockMvc.perform(get("/api/events").param("size", "5")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+    }
+
     @Test
     @TestDescription("없는 이벤트를 조회했을 때 404 응답받기")
     public void getEvent404() throws Exception {
@@ -427,6 +742,102 @@ public class EventControllerTest extends BaseControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @TestDescription("fields 로 지정한 필드와 링크만 응답하는 이벤트 목록 조회")
+    public void queryEventsWithFields() throws Exception {
+        //Given
+        IntStream.range(0, 30).forEach(this::generateEvent);
+
+        //When & then
+        this.mockMvc.perform(get("/api/events")
+                .param("page", "1")
+                .param("size", "10")
+                .param("sort", "name,DESC")
+                .param("fields", "id,name,beginEventDateTime"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("page.totalElements").value(30))
+                .andExpect(jsonPath("_embedded.eventList", Matchers.hasSize(10)))
+                .andExpect(jsonPath("_embedded.eventList[0].id").exists())
+                .andExpect(jsonPath("_embedded.eventList[0].name").value("event 26"))
+                .andExpect(jsonPath("_embedded.eventList[0].beginEventDateTime").exists())
+                .andExpect(jsonPath("_embedded.eventList[0].description").doesNotExist())
+                .andExpect(jsonPath("_embedded.eventList[0].manager").doesNotExist())
+                .andExpect(jsonPath("_embedded.eventList[0]._links.self").exists())
+                .andExpect(jsonPath("_links.next").exists())
+                .andDo(document("query-events-fields"));
+    }
+
+    @Test
+    @TestDescription("fields 로 지정한 필드만 응답하는 이벤트 조회. ETag 는 전체 필드 응답과 다르다")
+    public void getEventWithFields() throws Exception {
+        //Given
+        Event event = this.generateEvent(100);
+        String eTag = this.mockMvc.perform(get("/api/events/{id}", event.getId()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        //When & then
+        this.mockMvc.perform(get("/api/events/{id}", event.getId()).param("fields", "name"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, Matchers.not(eTag)))
+                .andExpect(jsonPath("name").value("event 100"))
+                .andExpect(jsonPath("id").doesNotExist())
+                .andExpect(jsonPath("_links.self").exists());
+    }
+
+    @Test
+    @TestDescription("없는 필드를 지정하면 400 응답받기")
+    public void queryEventsWithWrongFields() throws Exception {
+        this.mockMvc.perform(get("/api/events").param("fields", "id,password"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("content[0].code").value("wrongFields"));
+    }
+
+    @Test
+    @TestDescription("X-Async 헤더로 이벤트 하나를 비동기로 조회하기")
+    public void getEventAsync() throws Exception {
+        //Given
+        Event event = this.generateEvent(100);
+
+        //When
+        MvcResult result = this.mockMvc.perform(get("/api/events/{id}", event.getId())
+                .header(EventController.ASYNC_HEADER, "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //Then
+        this.mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(jsonPath("id").value(event.getId()))
+                .andExpect(jsonPath("_links.self").exists())
+                .andExpect(jsonPath("_links.profile").exists());
+    }
+
+    @Test
+    @TestDescription("X-Async 헤더로 30개의 이벤트를 10개씩 두번째 페이지 비동기로 조회하기")
+    public void queryEventsAsync() throws Exception {
+        //Given
+        IntStream.range(0, 30).forEach(this::generateEvent);
+
+        //When
+        MvcResult result = this.mockMvc.perform(get("/api/events")
+                .header(EventController.ASYNC_HEADER, "true")
+                .param("page", "1")
+                .param("size", "10")
+                .param("sort", "name,DESC"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //Then
+        this.mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("page.totalElements").value(30))
+                .andExpect(jsonPath("_embedded.eventList", Matchers.hasSize(10)))
+                .andExpect(jsonPath("_links.next.href", Matchers.containsString("page=2")))
+                .andExpect(jsonPath("_links.profile").exists());
+    }
+
     private Event generateEvent(int index, Account account) {
         Event event = buildEvent(index);
         event.setManager(account);
@@ -482,6 +893,43 @@ public class EventControllerTest extends BaseControllerTest {
         ;
     }
 
+    @Test
+    @TestDescription("If-Match 가 현재 버전과 다르면 이벤트 수정 실패")
+    public void updateEvent412_IfMatch() throws Exception {
+        //Given
+        Account account = this.createAccount();
+        Event event = this.generateEvent(100, account);
+        String token = this.getBearerToken(false);
+        String eTag = this.mockMvc.perform(get("/api/events/{id}", event.getId())
+                .header(HttpHeaders.AUTHORIZATION, token))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        EventDto eventDto = this.modelMapper.map(event, EventDto.class);
+        eventDto.setName("먼저 수정한 이벤트");
+        String newETag = this.mockMvc.perform(put("/api/events/{id}", event.getId())
+                .header(HttpHeaders.AUTHORIZATION, token)
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content(objectMapper.writeValueAsString(eventDto)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, Matchers.not(eTag)))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        //When & Then (예전 ETag 로 수정하면 실패)
+        eventDto.setName("나중에 수정한 이벤트");
+        this.mockMvc.perform(put("/api/events/{id}", event.getId())
+                .header(HttpHeaders.AUTHORIZATION, token)
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content(objectMapper.writeValueAsString(eventDto)))
+                .andDo(print())
+                .andExpect(status().isPreconditionFailed());
+
+        this.mockMvc.perform(get("/api/events/{id}", event.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, newETag.replace("-m", "")))
+                .andExpect(status().isNotModified());
+    }
+
     @Test
     @TestDescription("입력값이 비어있는 경우에 이벤트 수정 실패")
     public void updateEvent400_Empty() throws Exception {
@@ -531,8 +979,183 @@ public class EventControllerTest extends BaseControllerTest {
                 .andDo(print())
                 .andExpect(status().isNotFound());
     }
-}
 
+    @Test
+    @TestDescription("여러 이벤트를 한번에 생성하면 insert 가 배치로 묶이는 테스트")
+    public void createEventsBatch() throws Exception {
+        //Given
+        List<EventDto> eventDtos = IntStream.range(0, 100)
+                .mapToObj(i -> this.modelMapper.map(buildEvent(i), EventDto.class))
+                .collect(Collectors.toList());
+        String bearerToken = this.getBearerToken(true);
+        Statistics statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
 
+        //When & Then
+        this.mockMvc.perform(post("/api/events/batch")
+                .header(HttpHeaders.AUTHORIZATION, bearerToken)
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaTypes.HAL_JSON)
+                .content(objectMapper.writeValueAsString(eventDtos.subList(0, 2))))
+                .andDo(print())
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("_embedded.eventList.length()").value(2))
+                .andExpect(jsonPath("_embedded.eventList[0].id").exists())
+                .andExpect(jsonPath("_embedded.eventList[0].free").value(false))
+                .andExpect(jsonPath("_embedded.eventList[0]._links.self").exists())
+                .andExpect(jsonPath("_links.query-events").exists())
+                .andExpect(jsonPath("_links.profile").exists())
+                .andDo(document("create-events-batch"));
+
+        statistics.clear();
+        this.mockMvc.perform(post("/api/events/batch")
+                .header(HttpHeaders.AUTHORIZATION, bearerToken)
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content(objectMapper.writeValueAsString(eventDtos)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("_embedded.eventList.length()").value(100));
+
+        // 100건을 insert 하지만 시퀀스 조회와 배치 insert 로 몇 번의 쿼리만 실행한다.
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(100);
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(10);
+        assertThat(this.eventRepository.count()).isEqualTo(102);
+    }
+
+    @Test
+    @TestDescription("여러 이벤트 중 잘못된 이벤트가 있으면 순번별 에러를 응답하고 저장하지 않는 테스트")
+    public void createEventsBatch_Bad_Request() throws Exception {
+        //Given
+        EventDto valid = this.modelMapper.map(buildEvent(0), EventDto.class);
+        EventDto wrongPrices = this.modelMapper.map(buildEvent(1), EventDto.class);
+        wrongPrices.setBasePrice(20000);
+        EventDto empty = EventDto.builder().build();
+
+        //When & Then
+        this.mockMvc.perform(post("/api/events/batch")
+                .header(HttpHeaders.AUTHORIZATION, this.getBearerToken(true))
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content(objectMapper.writeValueAsString(Stream.of(valid, wrongPrices, empty).collect(Collectors.toList()))))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("content[?(@.objectName == 'events[0]')]").isEmpty())
+                .andExpect(jsonPath("content[?(@.objectName == 'events[1]')].code").value("wrongPrices"))
+                .andExpect(jsonPath("content[?(@.objectName == 'events[2]')].field").isNotEmpty())
+                .andExpect(jsonPath("_links.index").exists());
+
+        assertThat(this.eventRepository.count()).isEqualTo(0);
+    }
+
+    @Test
+    @TestDescription("빈 목록으로 여러 이벤트를 생성하면 에러가 발생하는 테스트")
+    public void createEventsBatch_Empty() throws Exception {
+        this.mockMvc.perform(post("/api/events/batch")
+                .header(HttpHeaders.AUTHORIZATION, this.getBearerToken(true))
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("[]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("content[0].code").value("wrongSize"));
+    }
+
+    @Test
+    @TestDescription("전체 이벤트를 한 줄에 하나씩 JSON 으로 내보내는 테스트")
+    public void exportEvents() throws Exception {
+        //Given
+        Account account = this.createAccount();
+        IntStream.range(0, 30).forEach(i -> this.generateEvent(i, account));
+        Event published = this.buildEvent(30);
+        published.setEventStatus(EventStatus.PUBLISHED);
+        this.eventRepository.save(published);
 
+        //When
+        String body = this.mockMvc.perform(get("/api/events/export"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, Matchers.startsWith(EventController.NDJSON_VALUE)))
+                .andDo(document("export-events"))
+                .andReturn().getResponse().getContentAsString();
 
+        //Then
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(31);
+        assertThat(JsonPath.<String>read(lines[0], "$.name")).isEqualTo("event 0");
+        assertThat(JsonPath.<Integer>read(lines[0], "$.manager.id")).isEqualTo(account.getId());
+        assertThat(JsonPath.<String>read(lines[30], "$.name")).isEqualTo("event 30");
+
+        // 상태로 거르기
+        this.mockMvc.perform(get("/api/events/export").param("eventStatus", EventStatus.PUBLISHED.name()))
+                .andExpect(status().isOk())
+                .andExpect(content().string(Matchers.startsWith("{\"id\":" + published.getId() + ",")))
+                .andExpect(content().string(Matchers.endsWith("}\n")));
+    }
+
+    @Test
+    @TestDescription("이름, 설명, 장소로 이벤트를 검색하면 관련도 순으로 응답하는 테스트")
+    public void searchEvents() throws Exception {
+        //Given
+        Event inDescription = this.buildEvent(0);
+        inDescription.setName("Java Meetup");
+        inDescription.setDescription("Spring 과 JPA 이야기");
+        inDescription.setLocation("판교역");
+        this.eventRepository.save(inDescription);
+        Event inName = this.buildEvent(1);
+        inName.setName("Spring REST API");
+        inName.setDescription("REST API Development");
+        this.eventRepository.save(inName);
+        Event other = this.buildEvent(2);
+        other.setName("Kotlin Night");
+        other.setDescription("Coroutines");
+        other.setLocation("판교역");
+        this.eventRepository.save(other);
+
+        //When & Then
+        this.mockMvc.perform(get("/api/events/search").param("q", "spring"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("_embedded.eventList[*].id",
+                        Matchers.contains(inName.getId(), inDescription.getId())))
+                .andExpect(jsonPath("_embedded.eventList[0]._links.self").exists())
+                .andExpect(jsonPath("_links.profile").exists())
+                .andDo(document("search-events"));
+
+        // 한글은 단어 일부로도 찾을 수 있다. (강남역 D2 스타트업 팩토리.)
+        this.mockMvc.perform(get("/api/events/search").param("q", "강남 스타트업"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("_embedded.eventList[*].id", Matchers.contains(inName.getId())));
+
+        // 수정하면 인덱스도 갱신된다.
+        inName.setName("Kotlin REST API");
+        this.eventRepository.save(inName);
+        this.mockMvc.perform(get("/api/events/search").param("q", "kotlin"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("_embedded.eventList[*].id",
+                        Matchers.containsInAnyOrder(inName.getId(), other.getId())));
+    }
+
+    @Test
+    @TestDescription("시작할 때 검색 인덱스가 DB 와 다르면 다시 만드는 테스트")
+    public void rebuildStaleIndex() throws Exception {
+        //Given
+        Event event = this.generateEvent(0);
+        this.eventIndex.rebuildIfStale();
+        assertThat(this.eventIndex.isStale()).isFalse();
+
+        // 다른 서버에서 수정한 경우
+        this.jdbcTemplate.update("update event set name = 'Kotlin Night', version = version + 1 where id = ?",
+                event.getId());
+        assertThat(this.eventIndex.isStale()).isTrue();
+
+        //When
+        this.eventIndex.rebuildIfStale();
+
+        //Then
+        assertThat(this.eventIndex.isStale()).isFalse();
+        assertThat(this.eventIndex.search("kotlin", 10)).containsExactly(event.getId());
+    }
+
+    @Test
+    @TestDescription("검색어 없이 검색하면 에러가 발생하는 테스트")
+    public void searchEvents_Bad_Request() throws Exception {
+        this.mockMvc.perform(get("/api/events/search").param("q", " "))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("content[0].code").value("wrongSearch"));
+    }
+}
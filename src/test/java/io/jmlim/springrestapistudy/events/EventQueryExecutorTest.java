@@ -0,0 +1,81 @@
+package io.jmlim.springrestapistudy.events;
+
+import io.jmlim.springrestapistudy.common.AppProperties;
+import io.jmlim.springrestapistudy.common.TestDescription;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class EventQueryExecutorTest {
+
+    EventQueryExecutor executor;
+
+    @Before
+    public void setUp() {
+        AppProperties appProperties = new AppProperties();
+        appProperties.getAsyncQuery().setThreads(1);
+        appProperties.getAsyncQuery().setQueueCapacity(1);
+        this.executor = new EventQueryExecutor(appProperties);
+    }
+
+    @After
+    public void tearDown() {
+        this.executor.destroy();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @TestDescription("작업 스레드에서도 현재 요청 정보를 사용할 수 있다")
+    public void submitWithRequestAttributes() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/events");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        DeferredResult<String> result = this.executor.submit(() ->
+                ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest().getRequestURI());
+
+        assertThat(awaitResult(result)).isEqualTo("/api/events");
+    }
+
+    @Test
+    @TestDescription("실행 중인 작업과 대기열이 가득 차면 기다리지 않고 바로 거절한다")
+    public void submitRejectedWhenQueueIsFull() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        DeferredResult<Boolean> running = this.executor.submit(() -> await(latch));
+        DeferredResult<Boolean> queued = this.executor.submit(() -> await(latch));
+
+        assertThatThrownBy(() -> this.executor.submit(() -> await(latch)))
+                .isInstanceOf(RejectedExecutionException.class);
+
+        latch.countDown();
+        assertThat(awaitResult(running)).isEqualTo(true);
+        assertThat(awaitResult(queued)).isEqualTo(true);
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static Object awaitResult(DeferredResult<?> result) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!result.hasResult() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        return result.getResult();
+    }
+}
@@ -0,0 +1,214 @@
+package io.jmlim.springrestapistudy.events;
+
+import io.jmlim.springrestapistudy.common.TestDescription;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.ChainListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 조회 조건(EventSpecs)과 인덱스 테스트.
+ * 데이터가 적으면 DB 가 인덱스 대신 전체 스캔을 선택할 수 있으므로 어느 정도 데이터를 넣고 실행계획을 확인한다.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+public class EventRepositoryTest {
+
+    private static final int EVENT_COUNT = 10000;
+
+    // 시퀀스로 만드는 id 와 겹치지 않도록
+    private static final int ID_OFFSET = 1_000_000;
+
+    @Autowired
+    EventRepository eventRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Before
+    public void setUp() {
+        this.eventRepository.deleteAllInBatch();
+        // 엔티티로 저장하면 SQL 로그가 너무 많으므로 JDBC 배치로 넣는다.
+        LocalDateTime base = LocalDateTime.of(2019, 1, 1, 10, 0);
+        List<Object[]> rows = IntStream.range(0, EVENT_COUNT).mapToObj(i -> new Object[]{
+                ID_OFFSET + i,
+                "event " + i,
+                Timestamp.valueOf(base.plusDays(i % 365)),
+                Timestamp.valueOf(base.plusDays(i % 365 + 7)),
+                Timestamp.valueOf(base.plusDays(i % 365 + 10)),
+                Timestamp.valueOf(base.plusDays(i % 365 + 11)),
+                i % 100 * 1000,
+                i % 100 == 0,
+                i % 2 == 0,
+                EventStatus.values()[i % EventStatus.values().length].name()
+        }).collect(Collectors.toList());
+        this.jdbcTemplate.batchUpdate("insert into event (id, name, description, begin_enrollment_date_time,"
+                + " close_enrollment_date_time, begin_event_date_time, end_event_date_time, base_price, max_price,"
+                + " limit_of_enrollment, free, offline, event_status, version)"
+                + " values (?, ?, 'test event', ?, ?, ?, ?, ?, 200000, 100, ?, ?, ?, 0)", rows);
+        // 통계를 갱신해야 옵티마이저가 선택도를 반영한다.
+        this.jdbcTemplate.execute("analyze");
+    }
+
+    @After
+    public void tearDown() {
+        this.eventRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @TestDescription("조회 조건이 모두 적용되는 테스트")
+    public void search() {
+        EventSearch search = new EventSearch();
+        search.setEventStatus(EventStatus.PUBLISHED);
+        search.setOffline(true);
+        search.setPriceFrom(10000);
+        search.setPriceTo(20000);
+        search.setBeginEventFrom(LocalDateTime.of(2019, 3, 1, 0, 0));
+        search.setBeginEventTo(LocalDateTime.of(2019, 6, 1, 0, 0));
+
+        List<Event> events = this.eventRepository.findAll(EventSpecs.search(search));
+
+        assertThat(events).isNotEmpty();
+        assertThat(events).allSatisfy(event -> {
+            assertThat(event.getEventStatus()).isEqualTo(EventStatus.PUBLISHED);
+            assertThat(event.isOffline()).isTrue();
+            assertThat(event.getBasePrice()).isBetween(10000, 20000);
+            assertThat(event.getBeginEventDateTime()).isBetween(search.getBeginEventFrom(), search.getBeginEventTo());
+        });
+        assertThat(events.size()).isLessThan(EVENT_COUNT / 10);
+    }
+
+    @Test
+    @TestDescription("등록 가능한 이벤트 조건 테스트")
+    public void searchEnrollable() {
+        EventSearch search = new EventSearch();
+        search.setEnrollableAt(LocalDateTime.of(2019, 2, 1, 0, 0));
+
+        List<Event> events = this.eventRepository.findAll(EventSpecs.search(search));
+
+        assertThat(events).isNotEmpty();
+        assertThat(events).allSatisfy(event -> {
+            assertThat(event.getBeginEnrollmentDateTime()).isBeforeOrEqualTo(search.getEnrollableAt());
+            assertThat(event.getCloseEnrollmentDateTime()).isAfterOrEqualTo(search.getEnrollableAt());
+        });
+    }
+
+    @Test
+    @TestDescription("자주 쓰는 조회 조건이 인덱스를 사용하는 테스트")
+    public void searchUsesIndexes() {
+        EventSearch statusAndBeginEvent = new EventSearch();
+        statusAndBeginEvent.setEventStatus(EventStatus.PUBLISHED);
+        statusAndBeginEvent.setBeginEventFrom(LocalDateTime.of(2019, 3, 1, 0, 0));
+        statusAndBeginEvent.setBeginEventTo(LocalDateTime.of(2019, 3, 10, 0, 0));
+        assertThat(explainSearch(statusAndBeginEvent)).containsIgnoringCase("ix_event_status_begin_event");
+
+        EventSearch freeOfflinePrice = new EventSearch();
+        freeOfflinePrice.setFree(false);
+        freeOfflinePrice.setOffline(true);
+        freeOfflinePrice.setPriceFrom(10000);
+        freeOfflinePrice.setPriceTo(11000);
+        assertThat(explainSearch(freeOfflinePrice)).containsIgnoringCase("ix_event_free_offline_price");
+
+        EventSearch price = new EventSearch();
+        price.setPriceFrom(10000);
+        price.setPriceTo(11000);
+        assertThat(explainSearch(price)).containsIgnoringCase("ix_event_base_price");
+
+        EventSearch enrollable = new EventSearch();
+        enrollable.setEnrollableAt(LocalDateTime.of(2019, 1, 3, 0, 0));
+        assertThat(explainSearch(enrollable)).containsIgnoringCase("ix_event_enrollment");
+    }
+
+    @Test
+    @TestDescription("지정한 필드만 조회한 페이지 테스트")
+    public void findPageWithFields() {
+        EventSearch search = new EventSearch();
+        search.setEventStatus(EventStatus.PUBLISHED);
+        PageRequest pageable = PageRequest.of(1, 20, Sort.by(Sort.Direction.DESC, "basePrice"));
+
+        Page<Event> page = this.eventRepository.findPage(EventSpecs.search(search), pageable,
+                EventFields.parse("name,beginEventDateTime"));
+
+        assertThat(page.getTotalElements()).isEqualTo(this.eventRepository.count(EventSpecs.search(search)));
+        assertThat(page.getContent()).hasSize(20);
+        assertThat(page.getContent()).allSatisfy(event -> {
+            assertThat(event.getId()).isNotNull();
+            assertThat(event.getVersion()).isNotNull();
+            assertThat(event.getName()).startsWith("event ");
+            assertThat(event.getBeginEventDateTime()).isNotNull();
+            // 정렬 기준은 커서를 만들 수 있도록 같이 조회한다.
+            assertThat(event.getBasePrice()).isPositive();
+            assertThat(event.getDescription()).isNull();
+            assertThat(event.getEventStatus()).isNull();
+        });
+        assertThat(page.getContent()).isSortedAccordingTo((a, b) -> Integer.compare(b.getBasePrice(), a.getBasePrice()));
+    }
+
+    /**
+     * findAll(EventSpecs.search(search)) 가 실제로 보낸 select 를 같은 바인드 파라미터로 EXPLAIN 한다.
+     * 테스트 프로파일은 sql-stats 를 사용하므로 dataSource 는 datasource-proxy 로 감싸져 있다. (DataSourceProxyConfig)
+     */
+    private String explainSearch(EventSearch search) {
+        ProxyDataSource proxyDataSource = DataSourceUnwrapper.unwrap(this.dataSource, ProxyDataSource.class);
+        assertThat(proxyDataSource).as("datasource-proxy").isNotNull();
+
+        List<QueryInfo> queries = new CopyOnWriteArrayList<>();
+        QueryExecutionListener capture = new QueryExecutionListener() {
+            @Override
+            public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            }
+
+            @Override
+            public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                queries.addAll(queryInfoList);
+            }
+        };
+        ChainListener listeners = proxyDataSource.getProxyConfig().getQueryListener();
+        listeners.addListener(capture);
+        try {
+            this.eventRepository.findAll(EventSpecs.search(search));
+        } finally {
+            listeners.getListeners().remove(capture);
+        }
+
+        assertThat(queries).hasSize(1);
+        QueryInfo query = queries.get(0);
+        // 숫자 조건은 Hibernate 가 SQL 에 리터럴로 넣으므로 바인드 파라미터가 없을 수 있다.
+        // setXxx(index, value) 호출 순서대로 기록되므로 index 로 정렬한다.
+        Object[] parameters = query.getParametersList().stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparing(operation -> (Integer) operation.getArgs()[0]))
+                .map(operation -> operation.getArgs()[1])
+                .toArray();
+        return this.jdbcTemplate.queryForObject("explain " + query.getQuery(), String.class, parameters);
+    }
+}
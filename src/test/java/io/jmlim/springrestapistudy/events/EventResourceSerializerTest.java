@@ -0,0 +1,123 @@
+package io.jmlim.springrestapistudy.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.jmlim.springrestapistudy.accounts.Account;
+import io.jmlim.springrestapistudy.common.TestDescription;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.PagedResources;
+import org.springframework.hateoas.core.DefaultRelProvider;
+import org.springframework.hateoas.hal.Jackson2HalModule;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * EventResourceSerializer 의 출력이 Jackson + HAL 모듈의 기본 직렬화 결과와 글자 단위로 같은지 확인.
+ */
+public class EventResourceSerializerTest {
+
+    ObjectMapper generic;
+
+    ObjectMapper custom;
+
+    @Before
+    public void setUp() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/events");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        this.generic = halObjectMapper();
+        this.custom = halObjectMapper();
+        this.custom.registerModule(new SimpleModule().addSerializer(EventResource.class, new EventResourceSerializer()));
+    }
+
+    @After
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    // 애플리케이션의 HAL ObjectMapper 와 같은 설정.
+    private ObjectMapper halObjectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new Jackson2HalModule());
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        objectMapper.setHandlerInstantiator(
+                new Jackson2HalModule.HalHandlerInstantiator(new DefaultRelProvider(), null, null));
+        return objectMapper;
+    }
+
+    @Test
+    @TestDescription("모든 값이 있는 이벤트와 링크")
+    public void serialize() throws Exception {
+        EventResource resource = new EventResource(buildEvent(1));
+        resource.add(EventLinks.event(1, "update-event"));
+        resource.add(new Link("/docs/index.html#resources-events-get").withRel("profile"));
+
+        assertSameJson(resource);
+    }
+
+    @Test
+    @TestDescription("id, 날짜, 상태, 매니저가 없는 이벤트")
+    public void serializeNullValues() throws Exception {
+        Event event = Event.builder().name("empty").build();
+        EventResource resource = new EventResource(event);
+
+        assertSameJson(resource);
+    }
+
+    @Test
+    @TestDescription("같은 rel 의 링크가 여럿이거나 템플릿, 제목이 있는 링크")
+    public void serializeComplexLinks() throws Exception {
+        EventResource resource = new EventResource(buildEvent(2));
+        resource.add(new Link("/api/events/3", "related"));
+        resource.add(new Link("/api/events{?page,size}", "query-events"));
+        resource.add(new Link("/api/events/4", "related").withTitle("다음 이벤트"));
+
+        assertSameJson(resource);
+    }
+
+    @Test
+    @TestDescription("목록 응답의 _embedded 이벤트")
+    public void serializePage() throws Exception {
+        PagedResources<EventResource> page = new PagedResources<>(
+                Arrays.asList(new EventResource(buildEvent(1)), new EventResource(buildEvent(2))),
+                new PagedResources.PageMetadata(2, 0, 2));
+        page.add(new Link("/docs/index.html#resources-events-list").withRel("profile"));
+
+        assertThat(this.custom.writeValueAsString(page)).isEqualTo(this.generic.writeValueAsString(page));
+    }
+
+    private void assertSameJson(EventResource resource) throws Exception {
+        assertThat(this.custom.writeValueAsString(resource)).isEqualTo(this.generic.writeValueAsString(resource));
+    }
+
+    private Event buildEvent(int id) {
+        return Event.builder()
+                .id(id)
+                .name("event " + id)
+                .description("test \"event\"")
+                .beginEnrollmentDateTime(LocalDateTime.of(2018, 11, 23, 14, 21))
+                .closeEnrollmentDateTime(LocalDateTime.of(2018, 11, 24, 14, 21, 30))
+                .beginEventDateTime(LocalDateTime.of(2018, 11, 25, 14, 21))
+                .endEventDateTime(LocalDateTime.of(2018, 11, 26, 14, 21))
+                .location("강남역 D2 스타트업 팩토리.")
+                .basePrice(100)
+                .maxPrice(200)
+                .limitOfEnrollment(100)
+                .offline(true)
+                .eventStatus(EventStatus.PUBLISHED)
+                .manager(Account.builder().id(7).build())
+                .build();
+    }
+}